@@ -0,0 +1,135 @@
+package org.puzzler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.puzzler.level.Level;
+import org.puzzler.level.LevelLoader;
+import org.puzzler.model.Board;
+import org.puzzler.model.Piece;
+import org.puzzler.solver.Solution;
+import org.puzzler.solver.Solver;
+import org.puzzler.solver.SolverLoader;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of every level against every solver.
+ *
+ * <p>The default parameters list the levels of {@link LevelLoader#levelNumbers()} and the
+ * solvers of {@link SolverLoader#solverNames()}. JMH only accepts constants in
+ * {@link Param}, so the lists are spelled out and every trial fails if they no longer
+ * match the loaders. Running {@link #main(String[])} takes both lists from the loaders
+ * directly and enables the GC profiler for allocation rates:</p>
+ *
+ * <pre>
+ *   mvn -P jmh package
+ *   java -cp target/benchmarks.jar org.puzzler.benchmark.SolverBenchmark
+ * </pre>
+ *
+ * <p>The boards are prepared once per trial. Neither benchmark modifies the board, so the
+ * same board is reused by every invocation.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    // Must match LevelLoader.levelNumbers() and SolverLoader.solverNames(), see checkParams()
+    @Param({"8", "26", "33", "36", "40"})
+    public int level;
+
+    @Param({"backtracking", "backtracking-list", "dlx", "cellfirst", "parallel"})
+    public String solver;
+
+    private Board board;
+    private List<Piece> pieces;
+    private Solver instance;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() {
+        checkParams();
+        Level loaded = LevelLoader.load(level);
+        board = new Board();
+        pieces = loaded.remainingPieces(loaded.initBoard(board));
+        instance = SolverLoader.load(solver);
+    }
+
+    /**
+     * Search for the first solution without writing it to the board.
+     */
+    @Benchmark
+    public Solution firstSolution() {
+        Solution[] found = new Solution[1];
+        instance.solveAll(board, pieces, solution -> {
+            found[0] = solution;
+            return false;
+        });
+        return found[0];
+    }
+
+    /**
+     * Count every solution of the level.
+     */
+    @Benchmark
+    public long countSolutions() {
+        return instance.countSolutions(board, pieces);
+    }
+
+    /**
+     * Check that the default parameters list every level and solver of the loaders, so a
+     * level or solver added later is not silently left out of the benchmarks.
+     *
+     * @throws IllegalStateException if a {@link Param} list differs from its loader
+     */
+    static void checkParams() {
+        checkParam("level", levelNames());
+        checkParam("solver", SolverLoader.solverNames());
+    }
+
+    private static void checkParam(String field, String[] expected) {
+        String[] actual;
+        try {
+            actual = SolverBenchmark.class.getField(field).getAnnotation(Param.class).value();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("No parameter " + field, e);
+        }
+        if (!Arrays.equals(actual, expected)) {
+            throw new IllegalStateException("@Param of " + field + " lists " + Arrays.toString(actual)
+                    + " but the loader has " + Arrays.toString(expected));
+        }
+    }
+
+    private static String[] levelNames() {
+        return Arrays.stream(LevelLoader.levelNumbers()).mapToObj(String::valueOf).toArray(String[]::new);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SolverBenchmark.class.getSimpleName())
+                .param("level", levelNames())
+                .param("solver", SolverLoader.solverNames())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
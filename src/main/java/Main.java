@@ -1,35 +1,200 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.puzzler.batch.BatchSolver;
+import org.puzzler.generator.Difficulty;
+import org.puzzler.generator.LevelGenerator;
 import org.puzzler.level.Level;
+import org.puzzler.level.LevelFile;
 import org.puzzler.level.LevelLoader;
 import org.puzzler.model.Board;
+import org.puzzler.model.Color;
 import org.puzzler.model.Piece;
+import org.puzzler.model.Pyramid;
+import org.puzzler.model.Shapes;
 import org.puzzler.model.Timer;
-import org.puzzler.solver.Backtracking;
+import org.puzzler.output.BoardRenderer;
+import org.puzzler.output.Output;
+import org.puzzler.solver.DancingLinksSolver;
+import org.puzzler.solver.PlacementTable;
+import org.puzzler.solver.Solution;
+import org.puzzler.solver.SolutionDatabase;
+import org.puzzler.solver.SolutionEnumerator;
+import org.puzzler.solver.SolutionFile;
+import org.puzzler.solver.SolutionIndex;
 import org.puzzler.solver.Solver;
+import org.puzzler.solver.SolverLoader;
 
 /**
  * Main entry point for running the puzzle solver on a selected level.
  * This class sets up a timer, loads the requested level, initializes the board
  * with pre-placed pieces, runs the solver on the remaining pieces and prints
- * the final board and timing information.
+ * the final board, timing information and the solver's search statistics.
+ * Boards and progress are printed by a {@link BoardRenderer}; the batch and
+ * database modes print nothing but their results.
+ *
+ * Usage: {@code Main <level> [solver]} where the optional solver name is resolved
+ * by {@link SolverLoader} and defaults to {@code backtracking}.
+ *
+ * Batch usage: {@code Main --batch <levels> [solver] [threads] [level file]} solves all
+ * levels of the specification (see {@link BatchSolver#parseLevels(String, LevelFile)})
+ * concurrently and prints one JSON result line per level. Levels are read from the given
+ * {@link LevelFile} or the bundled one.
+ *
+ * Database usage: {@code Main --build-database <file> [solver]} solves every level and
+ * writes the solutions to a {@link SolutionDatabase}; {@code Main --lookup <file> <level>}
+ * answers a level from that database without running a solver.
+ *
+ * Enumeration usage: {@code Main --enumerate <file> [threads] [--overwrite]} writes every
+ * solution of the empty board to a {@link SolutionFile}, checkpointing to
+ * {@code <file>.checkpoint} every minute; run it again to resume after it was stopped, or
+ * with {@code --overwrite} to start over on an existing file. {@code Main --filter <file> <level>}
+ * solves a level by filtering that file and prints the number of solutions and the first one.
+ * {@code Main --build-index <file> <index>} builds a {@link SolutionIndex} of the file, and
+ * {@code Main --index <index> <level>} answers a level from that index the same way.
+ *
+ * Pyramid usage: {@code Main --pyramid [COLOR:x,y,z/x,y,z/... ...]} pre-places the given
+ * pieces in the 3D {@link Pyramid} (ball row, column and layer), counts the solutions for
+ * the remaining pieces and prints the first one, unfolded layer by layer.
+ *
+ * Generator usage: {@code Main --generate <count> [groups] [threads] [seed]} generates
+ * uniquely solvable levels of the given comma separated difficulty groups (default all, see
+ * {@link Difficulty}) with a {@link LevelGenerator} and prints them as {@link LevelFile}
+ * lines numbered from 1, ready for {@code --batch}.
  */
 public class Main {
-    public static void main(String[] args) {
-        if (args.length > 0) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 1 && args[0].equals("--batch")) {
+            LevelFile file = args.length > 4 ? LevelFile.open(Path.of(args[4])) : LevelFile.standard();
+            int[] levels = BatchSolver.parseLevels(args[1], file);
+            String solver = args.length > 2 ? args[2] : "backtracking";
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+            try (BatchSolver batch = new BatchSolver(file, solver, threads, 4 * threads)) {
+                batch.solve(levels, result -> System.out.println(result.toJson()));
+            }
+        } else if (args.length > 1 && args[0].equals("--generate")) {
+            int count = Integer.parseInt(args[1]);
+            EnumSet<Difficulty> difficulties = EnumSet.noneOf(Difficulty.class);
+            if (args.length > 2) {
+                Arrays.stream(args[2].split(",")).map(Difficulty::forGroup).forEach(difficulties::add);
+            } else {
+                difficulties.addAll(EnumSet.allOf(Difficulty.class));
+            }
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+            int[] number = {0};
+            try (LevelGenerator generator = new LevelGenerator(threads, seed)) {
+                generator.generate(count, difficulties, level -> System.out.println(level.toLine(++number[0])));
+            }
+        } else if (args.length > 1 && args[0].equals("--build-database")) {
+            Solver solver = SolverLoader.load(args.length > 2 ? args[2] : "backtracking");
+            int records = SolutionDatabase.write(Path.of(args[1]), solver);
+            System.out.println("Stored " + records + " solutions in " + args[1]);
+        } else if (args.length > 1 && args[0].equals("--enumerate")) {
+            Path file = Path.of(args[1]);
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            boolean overwrite = args.length > 3 && args[3].equals("--overwrite");
+            long solutions = new SolutionEnumerator(threads, Duration.ofMinutes(1)).run(file,
+                    file.resolveSibling(file.getFileName() + ".checkpoint"), overwrite,
+                    progress -> System.out.println(progress.toJson()));
+            System.out.println("Stored " + solutions + " solutions in " + args[1]);
+        } else if (args.length > 2 && args[0].equals("--build-index")) {
+            int solutions = SolutionIndex.write(Path.of(args[1]), Path.of(args[2]));
+            System.out.println("Indexed " + solutions + " solutions in " + args[2]);
+        } else if (args.length > 2 && (args[0].equals("--filter") || args[0].equals("--index"))) {
+            Output.setSink(new BoardRenderer(System.out));
+            SolutionIndex index = args[0].equals("--index") ? SolutionIndex.open(Path.of(args[1])) : null;
+            Board board = new Board();
+            Level level = LevelLoader.load(Integer.parseInt(args[2]));
+            List<Piece> placed = level.initBoard(board);
+
+            Timer timer = new Timer();
+            timer.start();
+            List<Solution> solutions = index != null ? index.lookup(placed) : SolutionFile.lookup(Path.of(args[1]), placed);
+            timer.end();
+
+            System.out.println(solutions.size() + " solutions");
+            if (!solutions.isEmpty()) {
+                solutions.get(0).apply(board);
+                Output.sink().board(board);
+            }
+            Output.sink().duration(timer.getDuration());
+        } else if (args.length > 2 && args[0].equals("--lookup")) {
+            Output.setSink(new BoardRenderer(System.out));
+            SolutionDatabase database = SolutionDatabase.open(Path.of(args[1]));
+            Board board = new Board();
+            Level level = LevelLoader.load(Integer.parseInt(args[2]));
+            List<Piece> pieces = level.remainingPieces(level.initBoard(board));
+
+            Timer timer = new Timer();
+            timer.start();
+            Solution solution = database.lookup(board, pieces);
+            timer.end();
+
+            if (solution != null) {
+                solution.apply(board);
+                Output.sink().board(board);
+            } else {
+                System.out.println("No stored solution.");
+            }
+            Output.sink().duration(timer.getDuration());
+        } else if (args.length > 0 && args[0].equals("--pyramid")) {
+            Output.setSink(new BoardRenderer(System.out));
+            Pyramid pyramid = new Pyramid();
+            Board board = pyramid.newBoard();
+
+            EnumSet<Color> remaining = EnumSet.allOf(Color.class);
+            for (int i = 1; i < args.length; i++) {
+                String[] entry = args[i].split(":");
+                Color color = Color.valueOf(entry[0]);
+                String[] balls = entry[1].split("/");
+                int[][] cells = new int[balls.length][];
+                for (int j = 0; j < balls.length; j++) {
+                    cells[j] = Arrays.stream(balls[j].split(",")).mapToInt(Integer::parseInt).toArray();
+                }
+
+                Piece piece = pyramid.piece(color, cells);
+                if (!pyramid.isPlacement(piece)) {
+                    throw new IllegalArgumentException(args[i] + " does not form the " + color + " piece");
+                }
+                if (!remaining.remove(color) || !board.checkPlacementOfPiece(piece, 0, 0)) {
+                    throw new IllegalArgumentException(args[i] + " does not fit the pyramid");
+                }
+                board.placeBlock(piece);
+            }
+            List<Piece> pieces = remaining.stream().map(color -> new Piece(color, Shapes.of(color))).toList();
+            Output.sink().board(board);
+
+            Timer timer = new Timer();
+            timer.start();
+            Solver solver = new DancingLinksSolver(PlacementTable.of(pyramid));
+            long solutions = solver.countSolutions(board, pieces);
+            solver.solve(board, pieces);
+            timer.end();
+
+            System.out.println(solutions + " solutions");
+            Output.sink().duration(timer.getDuration());
+        } else if (args.length > 0) {
+            Output.setSink(new BoardRenderer(System.out));
             Timer timer = new Timer();
             timer.start();
 
             Board board = new Board();
             Level level = LevelLoader.load(Integer.parseInt(args[0]));
-            Solver solver  = new Backtracking();
+            Solver solver  = SolverLoader.load(args.length > 1 ? args[1] : "backtracking");
 
             List<Piece> pieces = level.initBoard(board);
-            board.printBoard();
+            Output.sink().board(board);
             solver.solve(board, level.remainingPieces(pieces));
-            board.printBoard();
 
             timer.end();
-            timer.printAllDurations();
+            Output.sink().duration(timer.getDuration());
+            System.out.println(solver.getStats().toJson());
         } else {
             System.out.println("No level specified.");
         }
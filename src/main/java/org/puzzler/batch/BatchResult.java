@@ -0,0 +1,78 @@
+package org.puzzler.batch;
+
+/**
+ * Outcome of solving one level of a batch.
+ */
+public final class BatchResult {
+
+    /**
+     * Status of a solved level.
+     */
+    public enum Status {
+        /** A solution was found and written to the level's board. */
+        SOLVED,
+        /** The search finished without a solution. */
+        UNSOLVABLE,
+        /** The level could not be loaded or the solver failed. */
+        ERROR
+    }
+
+    private final int level;
+    private final Status status;
+    private final long nanos;
+    private final String message;
+
+    BatchResult(int level, Status status, long nanos, String message) {
+        this.level = level;
+        this.status = status;
+        this.nanos = nanos;
+        this.message = message;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the time spent on this level, from loading it until the solver returned.
+     *
+     * @return elapsed nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Get the error message of a failed level.
+     *
+     * @return message, or null unless the status is {@link Status#ERROR}
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Format this result as a single-line JSON object.
+     *
+     * @return result line
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(96)
+                .append("{\"level\":").append(level)
+                .append(",\"status\":\"").append(status.name().toLowerCase()).append('"')
+                .append(",\"nanos\":").append(nanos);
+        if (message != null) {
+            json.append(",\"message\":\"").append(message.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -0,0 +1,202 @@
+package org.puzzler.batch;
+
+import org.puzzler.level.Level;
+import org.puzzler.level.LevelFile;
+import org.puzzler.model.Board;
+import org.puzzler.model.Piece;
+import org.puzzler.solver.Solution;
+import org.puzzler.solver.Solver;
+import org.puzzler.solver.SolverLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Solves many levels concurrently within one JVM.
+ *
+ * <p>Levels are solved on a fixed number of worker threads, each level on its own
+ * {@link Board}. The work queue is bounded: once it is full, the submitting thread solves
+ * the next level itself, so submitting thousands of levels never buffers more than the
+ * queue capacity. Solvers keep per-instance state and are not safe for concurrent use,
+ * therefore every thread loads its own solver once and reuses it for all of its levels,
+ * which keeps the compiled search code hot.</p>
+ *
+ * <p>Levels are taken from a {@link LevelFile}, by default the bundled one, which parses
+ * each level only when it is solved. A batch is specified by
+ * {@link #parseLevels(String, LevelFile)}, e.g. {@code 8,26,40}, {@code 8-40} or
+ * {@code @batch.txt}.</p>
+ */
+public class BatchSolver implements AutoCloseable {
+    private final LevelFile levels;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Solver> solvers;
+
+    /**
+     * Create a batch solver using all available processors.
+     *
+     * @param solverName solver identifier, see {@link SolverLoader}
+     */
+    public BatchSolver(String solverName) {
+        this(solverName, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a batch solver with a work queue of four levels per thread.
+     *
+     * @param solverName solver identifier, see {@link SolverLoader}
+     * @param threads number of worker threads
+     */
+    public BatchSolver(String solverName, int threads) {
+        this(LevelFile.standard(), solverName, threads, 4 * threads);
+    }
+
+    /**
+     * Create a batch solver.
+     *
+     * @param levels file to load the levels from
+     * @param solverName solver identifier, see {@link SolverLoader}
+     * @param threads number of worker threads
+     * @param queueCapacity number of levels waiting for a free worker
+     * @throws IllegalArgumentException if the solver name is unsupported or a size is not positive
+     */
+    public BatchSolver(LevelFile levels, String solverName, int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid configuration: threads=" + threads + ", queueCapacity=" + queueCapacity);
+        }
+        // Fail on an unknown name here rather than in every worker
+        SolverLoader.load(solverName);
+
+        this.levels = levels;
+        this.solvers = ThreadLocal.withInitial(() -> SolverLoader.load(solverName));
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Solve the given levels.
+     *
+     * <p>Each result is passed to {@code output} as soon as its level is done, one at a
+     * time and therefore in completion order.</p>
+     *
+     * @param numbers level numbers to solve
+     * @param output receiver of one result per level
+     * @return results in the order of {@code numbers}
+     * @throws InterruptedException if interrupted while waiting for the results
+     */
+    public List<BatchResult> solve(int[] numbers, Consumer<BatchResult> output) throws InterruptedException {
+        List<Future<BatchResult>> futures = new ArrayList<>(numbers.length);
+        for (int number : numbers) {
+            futures.add(executor.submit(() -> {
+                BatchResult result = solve(number);
+                synchronized (output) {
+                    output.accept(result);
+                }
+                return result;
+            }));
+        }
+
+        List<BatchResult> results = new ArrayList<>(numbers.length);
+        for (Future<BatchResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Batch task failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private BatchResult solve(int number) {
+        long start = System.nanoTime();
+        try {
+            Level level = levels.load(number);
+            Board board = new Board();
+            List<Piece> pieces = level.remainingPieces(level.initBoard(board));
+
+            Solution[] found = new Solution[1];
+            solvers.get().solveAll(board, pieces, solution -> {
+                found[0] = solution;
+                return false;
+            });
+
+            if (found[0] == null) {
+                return new BatchResult(number, BatchResult.Status.UNSOLVABLE, System.nanoTime() - start, null);
+            }
+            found[0].apply(board);
+            return new BatchResult(number, BatchResult.Status.SOLVED, System.nanoTime() - start, null);
+        } catch (RuntimeException e) {
+            return new BatchResult(number, BatchResult.Status.ERROR, System.nanoTime() - start, e.toString());
+        }
+    }
+
+    /**
+     * Stop the worker threads once all submitted levels are done.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Parse a batch specification.
+     *
+     * <p>The specification is a list of entries separated by commas or whitespace. An entry
+     * is a level number, a range {@code from-to} which selects every level of the level
+     * file within the inclusive bounds, or {@code @file} to read further entries from a
+     * file. In files, everything after a {@code #} on a line is ignored.</p>
+     *
+     * @param spec batch specification
+     * @param file level file the ranges select from
+     * @return level numbers in the order given
+     * @throws IOException if a referenced file cannot be read
+     * @throws IllegalArgumentException if an entry is malformed
+     */
+    public static int[] parseLevels(String spec, LevelFile file) throws IOException {
+        List<Integer> levels = new ArrayList<>();
+        parseLevels(spec, file.levelNumbers(), levels);
+        return levels.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void parseLevels(String spec, int[] available, List<Integer> levels) throws IOException {
+        for (String entry : spec.trim().split("[,\\s]+")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            if (entry.startsWith("@")) {
+                for (String line : Files.readAllLines(Path.of(entry.substring(1)))) {
+                    int comment = line.indexOf('#');
+                    parseLevels(comment >= 0 ? line.substring(0, comment) : line, available, levels);
+                }
+                continue;
+            }
+
+            try {
+                int dash = entry.indexOf('-', 1);
+                if (dash < 0) {
+                    levels.add(Integer.parseInt(entry));
+                    continue;
+                }
+
+                int from = Integer.parseInt(entry.substring(0, dash));
+                int to = Integer.parseInt(entry.substring(dash + 1));
+                for (int level : available) {
+                    if (level >= from && level <= to) {
+                        levels.add(level);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid level entry: " + entry, e);
+            }
+        }
+    }
+}
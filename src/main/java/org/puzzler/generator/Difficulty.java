@@ -0,0 +1,69 @@
+package org.puzzler.generator;
+
+/**
+ * Difficulty group of a level, graded by the size of the search that proves its solution
+ * unique.
+ *
+ * <p>The bounds are node counts of a {@link org.puzzler.solver.Backtracking} solver with
+ * region pruning and without symmetry breaking searching the whole tree. Unique positions
+ * with six or more pieces placed mostly take below 30 nodes, four or five pieces below
+ * 300, three pieces about 750 and two pieces about 2000. The bundled levels 8 (starter),
+ * 26 (expert) and 33 (master) take 8, 82 and 576 nodes; level 36 (master) is an unusually
+ * hard three piece level of 6923 nodes and grades as wizard.</p>
+ */
+public enum Difficulty {
+    STARTER(30),
+    EXPERT(300),
+    MASTER(1_000),
+    WIZARD(Long.MAX_VALUE);
+
+    private final long maxNodes;
+
+    Difficulty(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Get the largest node count of this group.
+     *
+     * @return inclusive upper bound of the search nodes
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Get the group name used in level files, e.g. {@code starter}.
+     *
+     * @return lower case group name
+     */
+    public String group() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Grade a search.
+     *
+     * @param nodes search nodes needed to prove the solution unique
+     * @return the easiest group whose bound is not exceeded
+     */
+    public static Difficulty of(long nodes) {
+        for (Difficulty difficulty : values()) {
+            if (nodes <= difficulty.maxNodes) {
+                return difficulty;
+            }
+        }
+        return WIZARD;
+    }
+
+    /**
+     * Parse a group name.
+     *
+     * @param group group name, case-insensitive
+     * @return difficulty
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static Difficulty forGroup(String group) {
+        return valueOf(group.toUpperCase());
+    }
+}
@@ -0,0 +1,96 @@
+package org.puzzler.generator;
+
+import org.puzzler.level.LevelFile;
+import org.puzzler.model.Color;
+
+/**
+ * Starting position produced by a {@link LevelGenerator}: the pre-placed pieces of a
+ * standard 5x11 board whose remaining pieces have exactly one solution.
+ */
+public final class GeneratedLevel {
+    private final Color[] colors;
+    private final long[] masks;
+    private final long nodes;
+    private final Difficulty difficulty;
+
+    GeneratedLevel(Color[] colors, long[] masks, long nodes) {
+        this.colors = colors;
+        this.masks = masks;
+        this.nodes = nodes;
+        this.difficulty = Difficulty.of(nodes);
+    }
+
+    /**
+     * Get the number of pre-placed pieces.
+     *
+     * @return piece count
+     */
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Get the color of a pre-placed piece.
+     *
+     * @param i piece index (0..size-1)
+     * @return piece color
+     */
+    public Color getColor(int i) {
+        return colors[i];
+    }
+
+    /**
+     * Get the cells of a pre-placed piece, bit {@code x * 11 + y} for cell (x, y).
+     *
+     * @param i piece index (0..size-1)
+     * @return cell mask of the piece
+     */
+    public long getMask(int i) {
+        return masks[i];
+    }
+
+    /**
+     * Get the cells covered by all pre-placed pieces.
+     *
+     * @return cell mask of the starting board
+     */
+    public long getOccupied() {
+        long occupied = 0L;
+        for (long mask : masks) {
+            occupied |= mask;
+        }
+        return occupied;
+    }
+
+    /**
+     * Get the size of the search that proved the solution unique.
+     *
+     * @return search nodes, see {@link Difficulty}
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Format this level as a line of a {@link LevelFile}.
+     *
+     * @param number level number
+     * @return level line without line terminator
+     */
+    public String toLine(int number) {
+        StringBuilder line = new StringBuilder(160).append(number).append(' ').append(difficulty.group());
+        for (int i = 0; i < colors.length; i++) {
+            line.append(' ').append(colors[i]).append(':').append(Long.toHexString(masks[i]));
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toLine(0);
+    }
+}
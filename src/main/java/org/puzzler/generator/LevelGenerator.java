@@ -0,0 +1,229 @@
+package org.puzzler.generator;
+
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+import org.puzzler.solver.Backtracking;
+import org.puzzler.solver.CellFirstSolver;
+import org.puzzler.solver.Placement;
+import org.puzzler.solver.Symmetry;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Generates uniquely solvable levels for the standard 5x11 board.
+ *
+ * <p>Every worker repeatedly fills the empty board with a random solution, found by a
+ * {@link CellFirstSolver} trying the placements in random order, and then takes
+ * the pieces off again one at a time, in random order. A piece stays off only if the
+ * remaining pieces still have exactly one solution, which a {@link Backtracking} solver
+ * checks by stopping at the second solution it finds. The solver's node count of that
+ * check is the size of the search proving the solution unique, which grades the position
+ * (see {@link Difficulty}). Every piece taken off makes the level harder, so of each chain
+ * the last position of every wanted difficulty is kept.</p>
+ *
+ * <p>Each worker thread has its own random generator, split from the seed of the
+ * generator, and its own solvers. Positions already produced are skipped.</p>
+ */
+public class LevelGenerator implements AutoCloseable {
+    private final int threads;
+    private final SplittableRandom random;
+    private final ExecutorService executor;
+
+    /**
+     * Create a generator using all available processors and a random seed.
+     */
+    public LevelGenerator() {
+        this(Runtime.getRuntime().availableProcessors(), new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Create a generator.
+     *
+     * @param threads number of worker threads
+     * @param seed seed of the random solutions and removal orders
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public LevelGenerator(int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid configuration: threads=" + threads);
+        }
+        this.threads = threads;
+        this.random = new SplittableRandom(seed);
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Generate levels of the given difficulties.
+     *
+     * <p>Each level is passed to {@code output} as soon as it is found, one at a time.</p>
+     *
+     * @param count number of levels to generate
+     * @param difficulties groups to generate levels for (not empty)
+     * @param output receiver of every level
+     * @return levels in the order they were found
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @throws IllegalArgumentException if no difficulty is given
+     */
+    public List<GeneratedLevel> generate(int count, Set<Difficulty> difficulties, Consumer<GeneratedLevel> output)
+            throws InterruptedException {
+        if (difficulties.isEmpty()) {
+            throw new IllegalArgumentException("No difficulty to generate");
+        }
+        EnumSet<Difficulty> wanted = EnumSet.copyOf(difficulties);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        List<GeneratedLevel> levels = new ArrayList<>(count);
+
+        Consumer<GeneratedLevel> collector = level -> {
+            if (!seen.add(level.toString())) {
+                return;
+            }
+            synchronized (levels) {
+                if (levels.size() < count) {
+                    levels.add(level);
+                    output.accept(level);
+                }
+            }
+        };
+
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(random.split());
+            futures.add(executor.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    synchronized (levels) {
+                        if (levels.size() >= count) {
+                            return;
+                        }
+                    }
+                    worker.chain(wanted, collector);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Generator task failed", e.getCause());
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Stop the worker threads once the current generation is done.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private final class Worker {
+        private final SplittableRandom random;
+        private final CellFirstSolver filler;
+        private final Backtracking solver = new Backtracking(true, Symmetry.Mode.NONE);
+        private final List<Piece> pieces = new ArrayList<>();
+        private final Placement[] solution = new Placement[Color.values().length];
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+            this.filler = new CellFirstSolver(true, Symmetry.Mode.NONE, random);
+            for (Color color : Color.values()) {
+                pieces.add(new Piece(color, Shapes.of(color)));
+            }
+        }
+
+        /**
+         * Take the pieces off a random solution and report the last unique position of
+         * every wanted difficulty.
+         */
+        void chain(Set<Difficulty> wanted, Consumer<GeneratedLevel> output) {
+            // The empty board has solutions, so the exhaustive random search always finds one
+            fill();
+
+            int[] order = new int[solution.length];
+            for (int i = 0; i < order.length; i++) {
+                int j = random.nextInt(i + 1);
+                order[i] = order[j];
+                order[j] = i;
+            }
+
+            GeneratedLevel[] last = new GeneratedLevel[Difficulty.values().length];
+            int placed = (1 << solution.length) - 1;
+            for (int piece : order) {
+                int candidate = placed & ~(1 << piece);
+                long nodes = uniqueNodes(candidate);
+                if (nodes < 0) {
+                    continue;
+                }
+                placed = candidate;
+                GeneratedLevel level = level(placed, nodes);
+                last[level.getDifficulty().ordinal()] = level;
+            }
+
+            for (Difficulty difficulty : wanted) {
+                if (last[difficulty.ordinal()] != null) {
+                    output.accept(last[difficulty.ordinal()]);
+                }
+            }
+        }
+
+        /**
+         * Fill the empty board with the first solution of the random search.
+         */
+        private void fill() {
+            filler.solveAll(new Board(), pieces, found -> {
+                for (Placement placement : found.getPlacements()) {
+                    solution[placement.getColor().ordinal()] = placement;
+                }
+                return false;
+            });
+        }
+
+        /**
+         * Search the position with the placed pieces of the solution.
+         *
+         * @return nodes of the search if it has exactly one solution, else -1
+         */
+        private long uniqueNodes(int placed) {
+            Board board = new Board();
+            List<Piece> remaining = new ArrayList<>();
+            for (int i = 0; i < solution.length; i++) {
+                if ((placed & (1 << i)) != 0) {
+                    board.placeRemainingBlock(solution[i].getPiece(), solution[i].getX(), solution[i].getY());
+                } else {
+                    remaining.add(pieces.get(i));
+                }
+            }
+
+            long before = solver.getStats().getNodes();
+            int[] solutions = {0};
+            solver.solveAll(board, remaining, found -> ++solutions[0] < 2);
+            return solutions[0] == 1 ? solver.getStats().getNodes() - before : -1;
+        }
+
+        private GeneratedLevel level(int placed, long nodes) {
+            Color[] colors = new Color[Integer.bitCount(placed)];
+            long[] masks = new long[colors.length];
+            int i = 0;
+            for (int rest = placed; rest != 0; rest &= rest - 1) {
+                Placement placement = solution[Integer.numberOfTrailingZeros(rest)];
+                colors[i] = placement.getColor();
+                masks[i++] = placement.getMask();
+            }
+            return new GeneratedLevel(colors, masks, nodes);
+        }
+    }
+}
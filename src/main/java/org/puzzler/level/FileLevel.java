@@ -0,0 +1,95 @@
+package org.puzzler.level;
+
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.output.Output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Level read from a {@link LevelFile}.
+ *
+ * The pre-placed pieces are stored as cell masks of the standard 5x11 board, with
+ * bit {@code x * 11 + y} set for every cell (x, y) a piece covers. Remaining pieces
+ * are initialized with the default shapes.
+ */
+public final class FileLevel implements Level {
+    private static final int COLUMN = 11;
+
+    private final int number;
+    private final String group;
+    private final Color[] colors;
+    private final long[] masks;
+
+    FileLevel(int number, String group, Color[] colors, long[] masks) {
+        this.number = number;
+        this.group = group;
+        this.colors = colors;
+        this.masks = masks;
+    }
+
+    @Override
+    public String name() {
+        return "Level " + number;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Get the difficulty group of this level, e.g. {@code starter} or {@code wizard}.
+     *
+     * @return group name
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Get the cells covered by all pre-placed pieces.
+     *
+     * @return cell mask of the starting board
+     */
+    public long getOccupied() {
+        long occupied = 0L;
+        for (long mask : masks) {
+            occupied |= mask;
+        }
+        return occupied;
+    }
+
+    /**
+     * Place this level's fixed pieces on the given board.
+     *
+     * @param board the board to place pieces on
+     * @return list of pieces that were placed (the fixed pieces)
+     * @throws IllegalArgumentException if a piece does not fit the board
+     */
+    @Override
+    public List<Piece> initBoard(Board board) {
+        List<Piece> pieces = new ArrayList<>(colors.length);
+
+        for (int i = 0; i < colors.length; i++) {
+            int[][] points = new int[Long.bitCount(masks[i])][];
+            int point = 0;
+            for (long rest = masks[i]; rest != 0; rest &= rest - 1) {
+                int cell = Long.numberOfTrailingZeros(rest);
+                int x = cell / COLUMN;
+                int y = cell % COLUMN;
+                if (!board.getBitBoard().contains(x, y)) {
+                    throw new IllegalArgumentException(name() + ": " + colors[i] + " does not fit the board");
+                }
+                points[point++] = new int[] {x, y};
+            }
+            pieces.add(new Piece(colors[i], points));
+        }
+
+        pieces.forEach(board::placeBlock);
+        Output.sink().levelLoaded(this, pieces);
+
+        return pieces;
+    }
+}
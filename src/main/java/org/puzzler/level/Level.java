@@ -3,6 +3,8 @@ package org.puzzler.level;
 import org.puzzler.model.Board;
 import org.puzzler.model.Color;
 import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+import org.puzzler.output.Output;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -33,7 +35,7 @@ public interface Level {
      *
      * Implementations typically compute which colors are not present among the already
      * placed pieces, instantiate new {@link Piece} objects for them, initialize their
-     * block shapes, and return that list.
+     * block shapes, report them to the {@link Output#sink() event sink} and return that list.
      *
      * @param placedPieces the list of already placed pieces
      * @return list of pieces that remain to be placed
@@ -41,8 +43,6 @@ public interface Level {
     default List<Piece> remainingPieces(List<Piece> placedPieces) {
         List<Piece> remainingPieces = new ArrayList<>();
 
-        System.out.println("The following blocks are unset:");
-
         for (Color color : Color.values()) {
             boolean isRemaining = true;
 
@@ -57,9 +57,10 @@ public interface Level {
                 Piece piece = new Piece(color);
                 initBlock(piece);
                 remainingPieces.add(piece);
-                System.out.println(color);
             }
         }
+
+        Output.sink().remainingPieces(remainingPieces);
         return remainingPieces;
     }
 
@@ -75,7 +76,7 @@ public interface Level {
      *
      * Implementations (concrete levels) may override to provide level-specific
      * starting coordinates for pieces. The default implementation provides the
-     * canonical shapes/coordinates for each color.
+     * canonical shapes/coordinates for each color as defined by {@link Shapes}.
      *
      * The coordinates passed to {@link Piece#addPoints(int[][])} are arrays of
      * {x, y} integer pairs describing the relative coordinates of the piece's cells.
@@ -83,113 +84,6 @@ public interface Level {
      * @param piece piece to initialize with default coordinates
      */
     default void initBlock(Piece piece) {
-        switch (piece.getColor()) {
-            case YELLOW:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {1, 0},
-                        {2, 0},
-                        {3, 0},
-                        {1, 1}});
-                break;
-            case LIGTH_RED:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {1, 0},
-                        {2, 0},
-                        {3, 0},
-                        {0, 1}});
-                break;
-            case PINK:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 1},
-                        {1, 0},
-                        {2, 0},
-                        {3, 0},
-                        {1, 1}});
-                break;
-            case LIGHT_BLUE:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {1, 0},
-                        {0, 1}});
-                break;
-            case DARK_MINT:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {0, 2},
-                        {1, 1}});
-                break;
-            case PURPLE:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {1, 1},
-                        {1, 2},
-                        {2, 2}});
-                break;
-            case ORANGE:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {1, 1},
-                        {1, 2},
-                        {2, 1}});
-                break;
-            case DARK_BLUE:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {1, 0},
-                        {2, 0}});
-                break;
-            case GREEN:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {1, 0},
-                        {1, 1},
-                        {1, 2},
-                        {0, 2}});
-                break;
-            case DARK_RED:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {1, 1},
-                        {1, 2}});
-                break;
-            case LIGHT_MINT:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {1, 0},
-                        {1, 1},
-                        {2, 0}});
-                break;
-            case BLUE:
-                // Initial Coordinates
-                piece.addPoints(new int[][]{
-                        {0, 0},
-                        {0, 1},
-                        {0, 2},
-                        {1, 0},
-                        {2, 0}});
-                break;
-            default:
-                System.out.println("Error");
-                //default -> throw new IllegalArgumentException("Unsupported color: " + piece.getColor());;
-        }
+        piece.addPoints(Shapes.of(piece.getColor()));
     }
 }
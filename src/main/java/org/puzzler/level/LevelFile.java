@@ -0,0 +1,245 @@
+package org.puzzler.level;
+
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+import org.puzzler.model.Variations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A file of levels, indexed by level number and parsed lazily.
+ *
+ * <p>The file is plain text with one level per line:</p>
+ *
+ * <pre>
+ *   # comment
+ *   40 wizard YELLOW:200f000000 LIGHT_MINT:1807
+ * </pre>
+ *
+ * <p>A line holds the level number, its difficulty group and one {@code color:mask} entry
+ * per pre-placed piece, where the mask is the hexadecimal cell mask of the piece on the
+ * standard 5x11 board (bit {@code x * 11 + y} for cell (x, y)). Everything after a
+ * {@code #} is ignored. Every color may appear once per level, and its mask must cover
+ * cells of the board in the shape of the color's piece; a level breaking these rules is
+ * rejected with its line number when it is parsed.</p>
+ *
+ * <p>Opening a file only scans the leading number of every line to build the index. A
+ * level is parsed on its first {@link #load(int)} and cached, so a batch run over a file
+ * of thousands of levels only parses the levels it actually solves. Instances are safe
+ * for concurrent use.</p>
+ */
+public final class LevelFile {
+    private static final String STANDARD = "levels.txt";
+    private static final int COLUMN = 11;
+    private static final long CELLS = (1L << 5 * COLUMN) - 1;
+
+    private final byte[] data;
+    // Level numbers in ascending order, the offset of each level's line in data and its line number
+    private final int[] numbers;
+    private final int[] offsets;
+    private final int[] lines;
+    private final ConcurrentHashMap<Integer, FileLevel> levels = new ConcurrentHashMap<>();
+
+    private LevelFile(byte[] data) {
+        this.data = data;
+
+        List<long[]> index = new ArrayList<>();
+        int line = 1;
+        for (int start = 0; start < data.length; start = nextLine(start), line++) {
+            int at = skipBlanks(start);
+            if (at < data.length && Character.isDigit(data[at])) {
+                long number = 0;
+                while (at < data.length && Character.isDigit(data[at])) {
+                    number = 10 * number + (data[at++] - '0');
+                    if (number > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Line " + line + ": level number out of range");
+                    }
+                }
+                index.add(new long[] {number, start, line});
+            }
+        }
+        index.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        numbers = new int[index.size()];
+        offsets = new int[index.size()];
+        lines = new int[index.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = (int) index.get(i)[0];
+            offsets[i] = (int) index.get(i)[1];
+            lines[i] = (int) index.get(i)[2];
+            if (i > 0 && numbers[i] == numbers[i - 1]) {
+                throw new IllegalArgumentException("Line " + lines[i] + ": duplicate level " + numbers[i]);
+            }
+        }
+    }
+
+    /**
+     * Open and index a level file.
+     *
+     * @param path level file
+     * @return indexed level file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file contains a level number twice or one out
+     *                                  of the range of an int
+     */
+    public static LevelFile open(Path path) throws IOException {
+        return new LevelFile(Files.readAllBytes(path));
+    }
+
+    /**
+     * Get the levels bundled with the application.
+     *
+     * @return shared level file
+     */
+    public static LevelFile standard() {
+        return Holder.STANDARD;
+    }
+
+    /**
+     * Get the numbers of all levels in this file.
+     *
+     * @return level numbers in ascending order
+     */
+    public int[] levelNumbers() {
+        return numbers.clone();
+    }
+
+    /**
+     * Check whether this file contains a level.
+     *
+     * @param number level number
+     * @return true if the level exists
+     */
+    public boolean contains(int number) {
+        return Arrays.binarySearch(numbers, number) >= 0;
+    }
+
+    /**
+     * Load a level, parsing it on first use.
+     *
+     * @param number level number
+     * @return level
+     * @throws IllegalArgumentException if the level does not exist or is malformed
+     */
+    public FileLevel load(int number) {
+        int i = Arrays.binarySearch(numbers, number);
+        if (i < 0) {
+            throw new IllegalArgumentException("Unsupported level: " + number);
+        }
+        return levels.computeIfAbsent(number, key -> parse(offsets[i], lines[i]));
+    }
+
+    /**
+     * Stream all levels in ascending order. Each level is parsed when the stream reaches it.
+     *
+     * @return stream of levels
+     */
+    public Stream<FileLevel> stream() {
+        return IntStream.of(numbers).mapToObj(this::load);
+    }
+
+    private FileLevel parse(int offset, int line) {
+        String text = new String(data, offset, nextLine(offset) - offset, StandardCharsets.UTF_8);
+        int comment = text.indexOf('#');
+        String[] fields = (comment >= 0 ? text.substring(0, comment) : text).trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Line " + line + ": malformed level: " + text.trim());
+        }
+
+        int number;
+        try {
+            number = Integer.parseInt(fields[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + line + ": malformed level number " + fields[0], e);
+        }
+        String at = "Line " + line + ", level " + number + ": ";
+
+        Color[] colors = new Color[fields.length - 2];
+        long[] masks = new long[fields.length - 2];
+        EnumSet<Color> seen = EnumSet.noneOf(Color.class);
+        long occupied = 0L;
+        for (int i = 0; i < colors.length; i++) {
+            String entry = fields[i + 2];
+            int colon = entry.indexOf(':');
+            try {
+                colors[i] = Color.valueOf(entry.substring(0, colon));
+                masks[i] = Long.parseUnsignedLong(entry.substring(colon + 1), 16);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(at + "malformed piece " + entry, e);
+            }
+
+            if (!seen.add(colors[i])) {
+                throw new IllegalArgumentException(at + colors[i] + " is placed twice");
+            }
+            if ((masks[i] & ~CELLS) != 0) {
+                throw new IllegalArgumentException(at + colors[i] + " covers cells outside the board");
+            }
+            if (!hasShape(colors[i], masks[i])) {
+                throw new IllegalArgumentException(at + colors[i] + " does not have the shape of its piece");
+            }
+            if ((occupied & masks[i]) != 0) {
+                throw new IllegalArgumentException(at + colors[i] + " overlaps another piece");
+            }
+            occupied |= masks[i];
+        }
+        return new FileLevel(number, fields[1], colors, masks);
+    }
+
+    /**
+     * Check whether the cells of a mask form a variation of the piece of a color.
+     */
+    private static boolean hasShape(Color color, long mask) {
+        if (Long.bitCount(mask) != Shapes.of(color).length) {
+            return false;
+        }
+        int[][] points = new int[Long.bitCount(mask)][];
+        int point = 0;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int cell = Long.numberOfTrailingZeros(rest);
+            points[point++] = new int[] {cell / COLUMN, cell % COLUMN};
+        }
+        return new Piece(color, points).getAllVariations().contains(Variations.of(color).get(0));
+    }
+
+    private int nextLine(int offset) {
+        while (offset < data.length && data[offset] != '\n') {
+            offset++;
+        }
+        return offset < data.length ? offset + 1 : offset;
+    }
+
+    private int skipBlanks(int offset) {
+        while (offset < data.length && (data[offset] == ' ' || data[offset] == '\t')) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static final class Holder {
+        static final LevelFile STANDARD = load();
+
+        private static LevelFile load() {
+            try (InputStream in = LevelFile.class.getResourceAsStream(LevelFile.STANDARD)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing level resource: " + LevelFile.STANDARD);
+                }
+                return new LevelFile(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
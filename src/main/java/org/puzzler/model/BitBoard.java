@@ -0,0 +1,372 @@
+package org.puzzler.model;
+
+import java.util.Arrays;
+
+/**
+ * Bit-level representation of the board occupancy.
+ *
+ * <p>Every cell of the board is mapped to one bit: the cell at row {@code x} and column
+ * {@code y} uses bit {@code x * columns + y}. A set bit means the cell is occupied. A
+ * board can be any rectangle, optionally restricted to a shape: cells outside the shape
+ * are not part of the board, and no piece may cover them.</p>
+ *
+ * <p>Boards of at most 64 cells, like the standard 5x11 board, are compact: all cells fit
+ * into a single {@code long}. Pieces are then described by cell masks (see
+ * {@link #maskOf(Piece, int, int)}), so that checking a placement is a single AND and
+ * placing or removing a piece is a single XOR. Larger boards use one {@code long} per 64
+ * cells, see {@link #getFullWords()}; the single word methods are only available on
+ * compact boards.</p>
+ */
+public class BitBoard {
+    private final int row; // x
+    private final int column; // y
+    private final long full;
+    private final long[] fullWords;
+    private long occupied;
+    private final long[] occupiedWords;
+
+    /**
+     * Create an empty bitboard with the standard 5x11 dimensions.
+     */
+    public BitBoard() {
+        this(5, 11);
+    }
+
+    /**
+     * Create an empty rectangular bitboard with the given dimensions.
+     *
+     * @param row number of rows (x dimension)
+     * @param column number of columns (y dimension)
+     * @throws IllegalArgumentException if a dimension is not positive
+     */
+    public BitBoard(int row, int column) {
+        this(row, column, null);
+    }
+
+    /**
+     * Create an empty bitboard of the given shape.
+     *
+     * @param row number of rows (x dimension) of the bounding rectangle
+     * @param column number of columns (y dimension) of the bounding rectangle
+     * @param shape bit {@code x * column + y} of word {@code (x * column + y) / 64} set for
+     *              every cell of the board, or null for the full rectangle
+     * @throws IllegalArgumentException if a dimension is not positive or the shape has cells
+     *                                  outside the rectangle
+     */
+    public BitBoard(int row, int column, long[] shape) {
+        if (row <= 0 || column <= 0 || (long) row * column > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Unsupported board size: " + row + "x" + column);
+        }
+        this.row = row;
+        this.column = column;
+
+        int cells = row * column;
+        long[] rectangle = new long[(cells + Long.SIZE - 1) / Long.SIZE];
+        Arrays.fill(rectangle, -1L);
+        if (cells % Long.SIZE != 0) {
+            rectangle[rectangle.length - 1] = (1L << (cells % Long.SIZE)) - 1;
+        }
+
+        if (shape != null) {
+            long[] words = Arrays.copyOf(shape, Math.max(shape.length, rectangle.length));
+            for (int i = 0; i < words.length; i++) {
+                if (i >= rectangle.length ? words[i] != 0 : (words[i] & ~rectangle[i]) != 0) {
+                    throw new IllegalArgumentException("Shape exceeds the " + row + "x" + column + " board");
+                }
+            }
+            rectangle = Arrays.copyOf(words, rectangle.length);
+        }
+
+        this.fullWords = rectangle;
+        this.occupiedWords = new long[rectangle.length];
+        this.full = rectangle.length == 1 ? rectangle[0] : 0L;
+    }
+
+    /**
+     * Get number of rows (x dimension).
+     *
+     * @return row count
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Get number of columns (y dimension).
+     *
+     * @return column count
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Check whether all cells fit into a single {@code long}.
+     *
+     * @return true if the board has at most 64 cells
+     */
+    public boolean isCompact() {
+        return fullWords.length == 1;
+    }
+
+    /**
+     * Get the number of cells of the board, not counting cells outside its shape.
+     *
+     * @return cell count
+     */
+    public int getCells() {
+        int cells = 0;
+        for (long word : fullWords) {
+            cells += Long.bitCount(word);
+        }
+        return cells;
+    }
+
+    /**
+     * Get the mask with every board cell set. Only available on compact boards.
+     *
+     * @return mask of all cells
+     * @throws IllegalStateException if the board is not compact
+     */
+    public long getFull() {
+        requireCompact();
+        return full;
+    }
+
+    /**
+     * Get the current occupancy mask. Only available on compact boards.
+     *
+     * @return mask with a bit set for every occupied cell
+     * @throws IllegalStateException if the board is not compact
+     */
+    public long getOccupied() {
+        requireCompact();
+        return occupied;
+    }
+
+    /**
+     * Get the cells of the board, 64 per word.
+     *
+     * @return copy of the multi-word mask of all cells
+     */
+    public long[] getFullWords() {
+        return fullWords.clone();
+    }
+
+    /**
+     * Get the current occupancy, 64 cells per word.
+     *
+     * @return copy of the multi-word mask of the occupied cells
+     */
+    public long[] getOccupiedWords() {
+        return isCompact() ? new long[] {occupied} : occupiedWords.clone();
+    }
+
+    /**
+     * Compute the bit index of a board cell.
+     *
+     * @param x row
+     * @param y column
+     * @return bit index of the cell
+     */
+    public int index(int x, int y) {
+        return x * column + y;
+    }
+
+    /**
+     * Check whether a cell belongs to the board.
+     *
+     * @param x row
+     * @param y column
+     * @return true if the cell lies inside the rectangle and the shape of the board
+     */
+    public boolean contains(int x, int y) {
+        if (x < 0 || x >= row || y < 0 || y >= column) {
+            return false;
+        }
+        int cell = index(x, y);
+        return (fullWords[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Compute the cells covered by a piece placed with its origin at the given coordinates.
+     *
+     * @param piece piece variation (its coordinates are relative)
+     * @param x board x coordinate (row) of the piece origin
+     * @param y board y coordinate (column) of the piece origin
+     * @return bit indices of the covered cells, or null if any cell lies outside the board
+     */
+    public int[] cellsOf(Piece piece, int x, int y) {
+        int[] cells = new int[piece.size()];
+        for (int i = 0; i < piece.size(); i++) {
+            int boardX = x + piece.getX(i);
+            int boardY = y + piece.getY(i);
+
+            if (!contains(boardX, boardY)) {
+                return null;
+            }
+            cells[i] = index(boardX, boardY);
+        }
+        return cells;
+    }
+
+    /**
+     * Compute the cell mask of a piece placed with its origin at the given coordinates.
+     * Only available on compact boards.
+     *
+     * @param piece piece variation (its coordinates are relative)
+     * @param x board x coordinate (row) of the piece origin
+     * @param y board y coordinate (column) of the piece origin
+     * @return cell mask of the piece, or 0 if any cell lies outside the board
+     * @throws IllegalStateException if the board is not compact
+     */
+    public long maskOf(Piece piece, int x, int y) {
+        requireCompact();
+        long mask = 0L;
+        for (int i = 0; i < piece.size(); i++) {
+            int boardX = x + piece.getX(i);
+            int boardY = y + piece.getY(i);
+
+            if (boardX < 0 || boardX >= row || boardY < 0 || boardY >= column) {
+                return 0L;
+            }
+            mask |= 1L << index(boardX, boardY);
+        }
+        return (mask & ~full) == 0 ? mask : 0L;
+    }
+
+    /**
+     * Check whether all cells of the mask are empty. Only available on compact boards.
+     *
+     * @param mask cell mask to test
+     * @return true if none of the cells is occupied
+     * @throws IllegalStateException if the board is not compact
+     */
+    public boolean fits(long mask) {
+        requireCompact();
+        return (occupied & mask) == 0;
+    }
+
+    /**
+     * Check whether a piece placed with its origin at the given coordinates lies on the
+     * board and covers only empty cells.
+     *
+     * @param piece piece variation (its coordinates are relative)
+     * @param x board x coordinate (row) of the piece origin
+     * @param y board y coordinate (column) of the piece origin
+     * @return true if the piece fits
+     */
+    public boolean fits(Piece piece, int x, int y) {
+        if (isCompact()) {
+            long mask = maskOf(piece, x, y);
+            return mask != 0 && fits(mask);
+        }
+
+        int[] cells = cellsOf(piece, x, y);
+        if (cells == null) {
+            return false;
+        }
+        for (int cell : cells) {
+            if ((occupiedWords[cell >>> 6] & (1L << cell)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a cell is occupied.
+     *
+     * @param x row
+     * @param y column
+     * @return true if the cell is occupied
+     */
+    public boolean isOccupied(int x, int y) {
+        int cell = index(x, y);
+        return isCompact()
+                ? (occupied & (1L << cell)) != 0
+                : (occupiedWords[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Mark the cells of the mask as occupied. The cells must be empty. Only available on
+     * compact boards.
+     *
+     * @param mask cell mask to place
+     * @throws IllegalStateException if the board is not compact
+     */
+    public void place(long mask) {
+        requireCompact();
+        occupied ^= mask;
+    }
+
+    /**
+     * Mark the cells of the mask as empty. The cells must have been placed before. Only
+     * available on compact boards.
+     *
+     * @param mask cell mask to remove
+     * @throws IllegalStateException if the board is not compact
+     */
+    public void remove(long mask) {
+        requireCompact();
+        occupied ^= mask;
+    }
+
+    /**
+     * Mark the cells of a piece placed with its origin at the given coordinates as
+     * occupied. The piece must fit.
+     *
+     * @param piece piece variation (its coordinates are relative)
+     * @param x board x coordinate (row) of the piece origin
+     * @param y board y coordinate (column) of the piece origin
+     */
+    public void place(Piece piece, int x, int y) {
+        toggle(piece, x, y);
+    }
+
+    /**
+     * Mark the cells of a piece placed with its origin at the given coordinates as empty.
+     * The piece must have been placed there before.
+     *
+     * @param piece piece variation (its coordinates are relative)
+     * @param x board x coordinate (row) of the piece origin
+     * @param y board y coordinate (column) of the piece origin
+     */
+    public void remove(Piece piece, int x, int y) {
+        toggle(piece, x, y);
+    }
+
+    private void toggle(Piece piece, int x, int y) {
+        if (isCompact()) {
+            occupied ^= maskOf(piece, x, y);
+            return;
+        }
+        for (int i = 0; i < piece.size(); i++) {
+            int cell = index(x + piece.getX(i), y + piece.getY(i));
+            occupiedWords[cell >>> 6] ^= 1L << cell;
+        }
+    }
+
+    /**
+     * Check whether every cell of the board is occupied.
+     *
+     * @return true if the board is full
+     */
+    public boolean isFull() {
+        return isCompact() ? occupied == full : Arrays.equals(occupiedWords, fullWords);
+    }
+
+    /**
+     * Remove all pieces from the bitboard.
+     */
+    public void clear() {
+        occupied = 0L;
+        Arrays.fill(occupiedWords, 0L);
+    }
+
+    private void requireCompact() {
+        if (!isCompact()) {
+            throw new IllegalStateException("Board has more than " + Long.SIZE + " cells: " + row + "x" + column);
+        }
+    }
+}
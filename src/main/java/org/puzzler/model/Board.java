@@ -1,18 +1,25 @@
 package org.puzzler.model;
 
-import java.awt.Point;
-
 /**
  * Represents the puzzle board as a 2D grid of placed pieces.
  *
  * Coordinates are integer grid coordinates where x is the row (0..row-1) and
  * y is the column (0..column-1). Each grid cell holds either a reference to a
  * {@link Piece} occupying that cell or null if the cell is empty.
+ *
+ * The occupancy is additionally tracked in a {@link BitBoard}, which answers the
+ * placement checks. The grid should therefore only be modified through the methods
+ * of this class so that both representations stay in sync.
+ *
+ * The board is the standard 5x11 rectangle unless other dimensions or a shape are
+ * given at construction. Grid cells outside the shape stay null and cannot be
+ * covered by any piece.
  */
 public class Board {
     public Piece[][] grid;
-    private final int row = 5; // x
-    private final int column = 11; // y
+    private final int row; // x
+    private final int column; // y
+    private final BitBoard bitBoard;
 
     /**
      * Get number of rows (x dimension).
@@ -33,9 +40,46 @@ public class Board {
     }
 
     /**
-     * Create and initialize an empty board.
+     * Get the bitboard tracking the occupancy of this board.
+     *
+     * @return occupancy bitboard
+     */
+    public BitBoard getBitBoard() {
+        return bitBoard;
+    }
+
+    /**
+     * Create and initialize an empty standard 5x11 board.
      */
     public Board() {
+        this(5, 11);
+    }
+
+    /**
+     * Create and initialize an empty rectangular board.
+     *
+     * @param row number of rows (x dimension)
+     * @param column number of columns (y dimension)
+     * @throws IllegalArgumentException if a dimension is not positive
+     */
+    public Board(int row, int column) {
+        this(row, column, null);
+    }
+
+    /**
+     * Create and initialize an empty board of the given shape.
+     *
+     * @param row number of rows (x dimension) of the bounding rectangle
+     * @param column number of columns (y dimension) of the bounding rectangle
+     * @param shape cells of the board, see {@link BitBoard#BitBoard(int, int, long[])}, or
+     *              null for the full rectangle
+     * @throws IllegalArgumentException if a dimension is not positive or the shape has cells
+     *                                  outside the rectangle
+     */
+    public Board(int row, int column, long[] shape) {
+        this.row = row;
+        this.column = column;
+        this.bitBoard = new BitBoard(row, column, shape);
         initBoard();
     }
 
@@ -47,36 +91,23 @@ public class Board {
                 this.grid[x][y] = null;
             }
         }
+        bitBoard.clear();
     }
 
     /**
      * Check whether a piece can be placed at the given board coordinates
      * without going out of bounds or overlapping already placed pieces.
      *
-     * The piece's relative coordinates (from {@link Piece#getBlock()}) are added to
+     * The piece's relative coordinates (from {@link Piece#getX(int)} and {@link Piece#getY(int)}) are added to
      * the provided x/y position to compute absolute board cells.
      *
-     * @param piece piece variation to test (its block list is relative coords)
+     * @param piece piece variation to test (its coordinates are relative)
      * @param x board x coordinate (row) where the piece origin would be placed
      * @param y board y coordinate (column) where the piece origin would be placed
      * @return true if placement fits and does not overlap, false otherwise
      */
     public boolean checkPlacementOfPiece(Piece piece, int x, int y) {
-        for (Point p : piece.getBlock()) {
-            int boardX = x + p.x;
-            int boardY = y + p.y;
-
-            // Check bounds of board
-            if (boardX < 0 || boardX >= row || boardY < 0 || boardY >= column) {
-                return false;
-            }
-
-            // Check if cell is empty
-            if (grid[boardX][boardY] != null) {
-                return false;
-            }
-        }
-        return true;
+        return bitBoard.fits(piece, x, y);
     }
 
     /**
@@ -86,9 +117,16 @@ public class Board {
      * @param piece piece to place
      * @param x origin x (row)
      * @param y origin y (column)
+     * @throws IllegalArgumentException if the piece is off the board or overlaps a placed piece
      */
     public void placeRemainingBlock(Piece piece, int x, int y) {
-        piece.getBlock().forEach( point -> this.grid[x + point.x][y + point.y] = piece);
+        if (!bitBoard.fits(piece, x, y)) {
+            throw new IllegalArgumentException("Piece " + piece.getColor() + " does not fit at " + x + "," + y);
+        }
+        for (int i = 0; i < piece.size(); i++) {
+            this.grid[x + piece.getX(i)][y + piece.getY(i)] = piece;
+        }
+        bitBoard.place(piece, x, y);
     }
 
     /**
@@ -100,7 +138,10 @@ public class Board {
      * @param y origin y used for placement
      */
     public void removeBlock(Piece piece, int x, int y) {
-        piece.getBlock().forEach( point -> this.grid[x + point.x][y + point.y] = null);
+        for (int i = 0; i < piece.size(); i++) {
+            this.grid[x + piece.getX(i)][y + piece.getY(i)] = null;
+        }
+        bitBoard.remove(piece, x, y);
     }
 
     /**
@@ -108,21 +149,15 @@ public class Board {
      * that are already defined in board coordinates (e.g. pre-placed level pieces).
      *
      * @param piece piece whose points are absolute board coordinates
+     * @throws IllegalArgumentException if the piece is off the board or overlaps a placed piece
      */
     public void placeBlock(Piece piece) {
-        piece.getBlock().forEach( point -> this.grid[point.x][point.y] = piece);
-    }
-
-    /**
-     * Print the board to stdout. Null cells are printed as "null".
-     */
-    public void printBoard() {
-        for (Piece[] row : grid) {
-            for (Piece cell : row) {
-                System.out.print(cell != null ? cell.getColor() + " " : null + " ");
-            }
-            System.out.println();
+        if (!bitBoard.fits(piece, 0, 0)) {
+            throw new IllegalArgumentException("Piece " + piece.getColor() + " does not fit the board");
+        }
+        for (int i = 0; i < piece.size(); i++) {
+            this.grid[piece.getX(i)][piece.getY(i)] = piece;
         }
-        System.out.println();
+        bitBoard.place(piece, 0, 0);
     }
 }
@@ -1,17 +1,20 @@
 package org.puzzler.model;
 
-import java.awt.Point;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Represents a puzzle piece composed of multiple grid cells.
  *
- * <p>A Piece has a {@link Color} identifier and a list of relative coordinates
- * ({@link Point}) that describe its shape. Coordinates are relative to the
- * piece origin and are used by {@link Board} methods to place and check the piece.</p>
+ * <p>A Piece has a {@link Color} identifier and a list of relative {x, y} coordinates
+ * that describe its shape. Coordinates are relative to the piece origin and are used by
+ * {@link Board} methods to place and check the piece. They are stored as two parallel
+ * {@code int} arrays and read through {@link #getX(int)} and {@link #getY(int)}, so
+ * placing, removing and checking a piece neither allocates nor boxes.</p>
  *
  * <p>This class also provides utilities to:
  * <ul>
@@ -23,22 +26,28 @@ import java.util.Set;
  */
 public class Piece {
     Color color;
-    List<Point> block = new ArrayList<>();
+    int[] xs = new int[0];
+    int[] ys = new int[0];
+    // Variations of this piece, set on first use; shared variations are never modified
+    private Set<Piece> variations;
+    private boolean shared;
 
     /**
-     * Construct a piece with a color and a predefined block coordinate list.
+     * Construct a piece with a color and the given coordinate arrays.
      *
      * @param color piece color (type/identifier)
-     * @param block list of relative points describing the piece shape
+     * @param xs x coordinate (row) of every cell
+     * @param ys y coordinate (column) of every cell, parallel to xs
      */
-    public Piece(Color color, List<Point> block) {
+    private Piece(Color color, int[] xs, int[] ys) {
         this.color = color;
-        this.block = block;
+        this.xs = xs;
+        this.ys = ys;
     }
 
     public Piece(Color color, int[][] coordinates) {
         this.color = color;
-        addPoints(coordinates);
+        append(coordinates);
     }
 
     /**
@@ -55,139 +64,218 @@ public class Piece {
      * Add coordinates to this piece.
      *
      * <p>The provided coordinates are arrays of {x, y} integer pairs. Points are appended
-     * to the piece's internal block list.</p>
+     * to the piece's internal coordinate arrays.</p>
      *
      * @param coordinates 2D int array of coordinates where each element is {x, y}
+     * @throws UnsupportedOperationException if this is one of the shared {@link Variations}
      */
     public void  addPoints(int[][] coordinates) {
+        if (shared) {
+            throw new UnsupportedOperationException("Shared variations cannot be modified");
+        }
+        variations = null;
+        append(coordinates);
+    }
+
+    private void append(int[][] coordinates) {
+        int size = xs.length;
+        xs = Arrays.copyOf(xs, size + coordinates.length);
+        ys = Arrays.copyOf(ys, size + coordinates.length);
+
         for (int[] point : coordinates) {
-            this.block.add(new Point(point[0], point[1]));
+            xs[size] = point[0];
+            ys[size] = point[1];
+            size++;
         }
     }
 
     /**
-     * Compute all unique rotational and reflectional variations of this piece.
+     * Get all unique rotational and reflectional variations of this piece.
      *
      * <p>The returned {@link Set} contains {@link Piece} instances whose coordinate
      * lists are normalized (minimum x/y moved to 0). Normalization ensures that
      * variations that are identical up to translation are considered equal.</p>
      *
-     * @return set of unique piece variations (rotations and reflections)
+     * <p>If this piece is any orientation of the canonical shape of its color, the
+     * shared, precomputed variations from {@link Variations} are returned without
+     * generating them again. The set is kept until the piece is changed.</p>
+     *
+     * @return unmodifiable set of unique piece variations (rotations and reflections)
      */
     public Set<Piece> getAllVariations() {
-        Set<Piece> variations = new HashSet<>();
-
-        List<Point> original = block;
-
-        for (int i = 0; i < 4; i++) {
-            List<Point> rotated = normalize(rotateCopy(original, i));
-            variations.add(new Piece(color, rotated));
-            variations.add(new Piece(color, normalize(reflectHorizontal(rotated))));
-            variations.add(new Piece(color, normalize(reflectVertical(rotated))));
+        if (variations == null) {
+            variations = isVariationOf(Variations.of(color))
+                    ? Variations.setOf(color)
+                    : Collections.unmodifiableSet(new LinkedHashSet<>(computeVariations()));
         }
-
         return variations;
     }
 
     /**
-     * Normalize the list of points so that the smallest x and y become 0.
+     * Mark this piece as one of the shared variations, which cannot be changed anymore.
      *
-     * <p>This prevents identical shapes with different offsets from appearing distinct.</p>
+     * @param variations shared variations of the piece's color, including this piece
+     */
+    void share(Set<Piece> variations) {
+        this.variations = variations;
+        this.shared = true;
+    }
+
+    /**
+     * Check whether this piece is a translation of one of the given normalized pieces,
+     * without normalizing it first.
      *
-     * @param block list of points to normalize
-     * @return new list of normalized points
+     * @param normalized normalized pieces of this piece's color
+     * @return true if a piece has exactly the cells of this piece, shifted to the origin
      */
-    private List<Point> normalize(List<Point> block) {
+    private boolean isVariationOf(List<Piece> normalized) {
         int minX = Integer.MAX_VALUE;
         int minY = Integer.MAX_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+        }
 
-        for (Point p : block) {
-            minX = Math.min(minX, p.x);
-            minY = Math.min(minY, p.y);
+        for (Piece piece : normalized) {
+            if (piece.xs.length == xs.length
+                    && contains(piece, this, -minX, -minY) && contains(this, piece, minX, minY)) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        List<Point> normalized = new ArrayList<>();
-        for (Point p : block) {
-            normalized.add(new Point(p.x - minX, p.y - minY));
+    /**
+     * Check whether every cell of {@code part}, shifted by (dx, dy), is a cell of {@code whole}.
+     */
+    private static boolean contains(Piece whole, Piece part, int dx, int dy) {
+        for (int i = 0; i < part.xs.length; i++) {
+            int x = part.xs[i] + dx;
+            int y = part.ys[i] + dy;
+            boolean found = false;
+            for (int j = 0; j < whole.xs.length && !found; j++) {
+                found = whole.xs[j] == x && whole.ys[j] == y;
+            }
+            if (!found) {
+                return false;
+            }
         }
-        return normalized;
+        return true;
     }
 
     /**
-     * Reflect the given block horizontally (mirror along the vertical axis).
+     * Compute all unique rotational and reflectional variations of this piece.
+     *
+     * <p>The variations are returned in a fixed order: for each of the four rotations
+     * the rotated shape followed by its horizontal and vertical reflection, skipping
+     * shapes that were already produced.</p>
      *
-     * @param block list of points
-     * @return reflected list of points
+     * @return list of unique normalized piece variations
      */
-    private List<Point> reflectHorizontal(List<Point> block) {
-        List<Point> reflected = new ArrayList<>();
-        for (Point p : block) {
-            reflected.add(reflectHorizontalPoint(p));
+    List<Piece> computeVariations() {
+        Set<Piece> variations = new LinkedHashSet<>();
+
+        for (int i = 0; i < 4; i++) {
+            Piece rotated = rotateCopy(i).normalize();
+            variations.add(rotated);
+            variations.add(rotated.reflectHorizontal().normalize());
+            variations.add(rotated.reflectVertical().normalize());
         }
-        return reflected;
-    }
 
-    private Point reflectVerticalPoint(Point point) {
-        return new Point(point.x, -point.y);
+        return new ArrayList<>(variations);
     }
 
     /**
-     * Reflect the given block vertically (mirror along the horizontal axis).
+     * Normalize the coordinates so that the smallest x and y become 0.
      *
-     * @param block list of points
-     * @return reflected list of points
+     * <p>This prevents identical shapes with different offsets from appearing distinct.
+     * The points are sorted by x, then y, so that identical shapes listed in a different
+     * order compare equal as well.</p>
+     *
+     * @return new normalized piece
      */
-    private List<Point> reflectVertical(List<Point> block) {
-        List<Point> reflected = new ArrayList<>();
-        for (Point p : block) {
-            reflected.add(reflectVerticalPoint(p));
+    private Piece normalize() {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
         }
-        return reflected;
-    }
 
-    private Point reflectHorizontalPoint(Point point) {
-        return new Point(-point.x, point.y);
+        // Both coordinates are non-negative after the shift, so packing x into the
+        // high and y into the low half of a long sorts by x, then y
+        long[] packed = new long[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            packed[i] = ((long) (xs[i] - minX) << 32) | (ys[i] - minY);
+        }
+        Arrays.sort(packed);
+
+        int[] normalizedXs = new int[packed.length];
+        int[] normalizedYs = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            normalizedXs[i] = (int) (packed[i] >>> 32);
+            normalizedYs[i] = (int) packed[i];
+        }
+        return new Piece(color, normalizedXs, normalizedYs);
     }
 
     /**
-     * Rotate the provided block 90 degrees clockwise in-place.
+     * Reflect this piece horizontally (mirror along the vertical axis).
      *
-     * @param block list of points to rotate
+     * @return reflected piece
      */
-    private void rotate(List<Point> block) {
-        block.forEach(point -> point.setLocation(rotatePoint(point)));
+    private Piece reflectHorizontal() {
+        int[] reflected = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            reflected[i] = -xs[i];
+        }
+        return new Piece(color, reflected, ys.clone());
     }
 
     /**
-     * Return a copy of the provided shape rotated {@code times} times (90° clockwise each).
+     * Reflect this piece vertically (mirror along the horizontal axis).
      *
-     * @param shape list of points to copy & rotate
-     * @param times number of 90° clockwise rotations to apply (0..3)
-     * @return new list with rotated points
+     * @return reflected piece
      */
-    private List<Point> rotateCopy(List<Point> shape, int times) {
-        List<Point> copy = new ArrayList<>();
-        for (Point p : shape) copy.add(new Point(p));
-        for (int i = 0; i < times; i++) {
-            rotate(copy);
+    private Piece reflectVertical() {
+        int[] reflected = new int[ys.length];
+        for (int i = 0; i < ys.length; i++) {
+            reflected[i] = -ys[i];
         }
-        return copy;
+        return new Piece(color, xs.clone(), reflected);
     }
 
-    private Point rotatePoint(Point point) {
-        return new Point(point.y, -point.x);
+    /**
+     * Return a copy of this piece rotated {@code times} times (90° clockwise each).
+     *
+     * @param times number of 90° clockwise rotations to apply (0..3)
+     * @return new rotated piece
+     */
+    private Piece rotateCopy(int times) {
+        int[] rotatedXs = xs.clone();
+        int[] rotatedYs = ys.clone();
+
+        for (int t = 0; t < times; t++) {
+            for (int i = 0; i < rotatedXs.length; i++) {
+                int x = rotatedXs[i];
+                rotatedXs[i] = rotatedYs[i];
+                rotatedYs[i] = -x;
+            }
+        }
+        return new Piece(color, rotatedXs, rotatedYs);
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Piece other)) return false;
-        return color == other.color && block.equals(other.block);
+        return color == other.color && Arrays.equals(xs, other.xs) && Arrays.equals(ys, other.ys);
     }
 
     @Override
     public int hashCode() {
-        return 31 * color.hashCode() + block.hashCode();
+        return 31 * (31 * color.ordinal() + Arrays.hashCode(xs)) + Arrays.hashCode(ys);
     }
 
     /**
@@ -200,11 +288,44 @@ public class Piece {
     }
 
     /**
-     * Set the piece block.
+     * Get the number of cells of this piece.
      *
-     * @return block for the piece
+     * @return cell count
      */
-    public List<Point> getBlock() {
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * Get the x coordinate (row) of a cell.
+     *
+     * @param i cell index (0..size-1)
+     * @return x coordinate of the cell
+     */
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Get the y coordinate (column) of a cell.
+     *
+     * @param i cell index (0..size-1)
+     * @return y coordinate of the cell
+     */
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Get a copy of the piece block.
+     *
+     * @return {x, y} coordinates of every cell
+     */
+    public int[][] getBlock() {
+        int[][] block = new int[xs.length][];
+        for (int i = 0; i < xs.length; i++) {
+            block[i] = new int[] {xs[i], ys[i]};
+        }
         return block;
     }
 }
@@ -0,0 +1,315 @@
+package org.puzzler.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Square pyramid of balls for the 3D pyramid mode of the puzzle.
+ *
+ * <p>Layer {@code z} (0 at the bottom) holds {@code (layers - z) x (layers - z)} balls, each
+ * resting in the hollow between four balls of the layer below. A ball is addressed by its
+ * layer and its row {@code x} and column {@code y} within the layer. The ball (x, y, z)
+ * touches (x, y, z + 1), (x - 1, y, z + 1), (x, y - 1, z + 1) and (x - 1, y - 1, z + 1)
+ * above it, so neighbours are the same index offsets everywhere in the pyramid.</p>
+ *
+ * <p>A piece is flat and its balls form a square grid, so it can only lie in a plane in
+ * which the balls form a square grid too. There are three such families of planes: the
+ * horizontal layers, spanned by the offsets (1, 0, 0) and (0, 1, 0), and the two families of
+ * slanted layers running diagonally through the pyramid, spanned by (0, 0, 1) and
+ * (-1, -1, 1), and by (-1, 0, 1) and (0, -1, 1). {@link #orientations(Color)} embeds every
+ * 2D variation of a piece into each family.</p>
+ *
+ * <p>For solving, the layers are unfolded side by side onto a flat {@link Board} of the
+ * shape returned by {@link #newBoard()}. The standard pyramid of 5 layers has 55 balls and
+ * is unfolded onto 5x12 cells, so it stays on the single word fast path of {@link BitBoard}.
+ * Only the placements of {@link #placements(Color)} are legal on that board, and they are
+ * not the 2D placements of the unfolded shape: a slanted piece spans several layers, and a
+ * flat piece must not cross from one layer into the next. The pyramid must therefore be
+ * solved with a solver built on its own table, i.e. a
+ * {@code DancingLinksSolver} on {@code PlacementTable.of(pyramid)}; the 2D solvers would
+ * accept illegal placements.</p>
+ */
+public final class Pyramid {
+    // Index offsets spanning the planes a piece can lie in, {dx, dy, dz} per axis
+    private static final int[][][] PLANES = {
+            {{1, 0, 0}, {0, 1, 0}},
+            {{0, 0, 1}, {-1, -1, 1}},
+            {{-1, 0, 1}, {0, -1, 1}}};
+
+    private final int layers;
+    private final int row;
+    private final int column;
+    private final int[] rowOffsets;
+    private final int[] columnOffsets;
+
+    /**
+     * Create the standard pyramid of 5 layers.
+     */
+    public Pyramid() {
+        this(5);
+    }
+
+    /**
+     * Create a pyramid.
+     *
+     * @param layers number of layers, which is also the edge length of the bottom layer
+     * @throws IllegalArgumentException if layers is not positive
+     */
+    public Pyramid(int layers) {
+        if (layers <= 0) {
+            throw new IllegalArgumentException("Unsupported pyramid size: " + layers);
+        }
+        this.layers = layers;
+        this.rowOffsets = new int[layers];
+        this.columnOffsets = new int[layers];
+
+        // Each layer goes below the previous one if there is room, else to its right
+        int width = layers;
+        for (int z = 1; z < layers; z++) {
+            int below = rowOffsets[z - 1] + size(z - 1);
+            if (z > 1 && below + size(z) <= layers) {
+                rowOffsets[z] = below;
+                columnOffsets[z] = columnOffsets[z - 1];
+            } else {
+                rowOffsets[z] = rowOffsets[z - 1];
+                columnOffsets[z] = columnOffsets[z - 1] + size(z - 1);
+            }
+            width = Math.max(width, columnOffsets[z] + size(z));
+        }
+        this.row = layers;
+        this.column = width;
+    }
+
+    /**
+     * Get the number of layers.
+     *
+     * @return layer count
+     */
+    public int getLayers() {
+        return layers;
+    }
+
+    /**
+     * Get the number of balls.
+     *
+     * @return ball count
+     */
+    public int getCells() {
+        int cells = 0;
+        for (int z = 0; z < layers; z++) {
+            cells += size(z) * size(z);
+        }
+        return cells;
+    }
+
+    /**
+     * Check whether a ball position lies inside the pyramid.
+     *
+     * @param x row within the layer
+     * @param y column within the layer
+     * @param z layer, 0 at the bottom
+     * @return true if the position is part of the pyramid
+     */
+    public boolean contains(int x, int y, int z) {
+        return z >= 0 && z < layers && x >= 0 && x < size(z) && y >= 0 && y < size(z);
+    }
+
+    /**
+     * Create an empty flat board with one cell per ball, see {@link #toBoard(int, int, int)}.
+     *
+     * @return board shaped like the unfolded layers
+     */
+    public Board newBoard() {
+        long[] shape = new long[(row * column + Long.SIZE - 1) / Long.SIZE];
+        for (int z = 0; z < layers; z++) {
+            for (int x = 0; x < size(z); x++) {
+                for (int y = 0; y < size(z); y++) {
+                    int[] cell = toBoard(x, y, z);
+                    int index = cell[0] * column + cell[1];
+                    shape[index / Long.SIZE] |= 1L << index;
+                }
+            }
+        }
+        return new Board(row, column, shape);
+    }
+
+    /**
+     * Map a ball to its cell on the unfolded board.
+     *
+     * @param x row within the layer
+     * @param y column within the layer
+     * @param z layer, 0 at the bottom
+     * @return {row, column} of the board cell
+     */
+    public int[] toBoard(int x, int y, int z) {
+        return new int[] {rowOffsets[z] + x, columnOffsets[z] + y};
+    }
+
+    /**
+     * Map a cell of the unfolded board back to its ball.
+     *
+     * @param x board row
+     * @param y board column
+     * @return {x, y, z} of the ball, or null if the cell is not part of the pyramid
+     */
+    public int[] fromBoard(int x, int y) {
+        for (int z = 0; z < layers; z++) {
+            int layerX = x - rowOffsets[z];
+            int layerY = y - columnOffsets[z];
+            if (contains(layerX, layerY, z)) {
+                return new int[] {layerX, layerY, z};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get all orientations of the canonical shape of a color in the pyramid.
+     *
+     * <p>Each orientation is a list of {dx, dy, dz} offsets, normalized so that the lowest
+     * ball (by layer, then row, then column) is at (0, 0, 0). Orientations that only
+     * differ in the order of their balls are listed once.</p>
+     *
+     * @param color piece color
+     * @return distinct orientations, each as an array of {dx, dy, dz} offsets
+     */
+    public static List<int[][]> orientations(Color color) {
+        Set<List<Integer>> seen = new LinkedHashSet<>();
+        List<int[][]> orientations = new ArrayList<>();
+
+        for (Piece variation : Variations.of(color)) {
+            for (int[][] plane : PLANES) {
+                int[][] offsets = new int[variation.size()][];
+                for (int i = 0; i < offsets.length; i++) {
+                    int a = variation.getX(i);
+                    int b = variation.getY(i);
+                    offsets[i] = new int[] {
+                            a * plane[0][0] + b * plane[1][0],
+                            a * plane[0][1] + b * plane[1][1],
+                            a * plane[0][2] + b * plane[1][2]};
+                }
+                normalize(offsets);
+
+                List<Integer> key = new ArrayList<>();
+                for (int[] offset : offsets) {
+                    key.add(offset[0]);
+                    key.add(offset[1]);
+                    key.add(offset[2]);
+                }
+                if (seen.add(key)) {
+                    orientations.add(offsets);
+                }
+            }
+        }
+        return orientations;
+    }
+
+    /**
+     * Get every placement of a color inside the pyramid.
+     *
+     * <p>Each placement is returned as a piece whose coordinates are absolute cells of the
+     * unfolded board, ready for {@link Board#placeBlock(Piece)} or for placing at origin
+     * (0, 0).</p>
+     *
+     * @param color piece color
+     * @return pieces in board coordinates, one per distinct set of balls
+     */
+    public List<Piece> placements(Color color) {
+        Set<Set<Integer>> seen = new LinkedHashSet<>();
+        List<Piece> placements = new ArrayList<>();
+        for (int[][] orientation : orientations(color)) {
+            for (int z = 0; z < layers; z++) {
+                for (int x = 0; x < size(z); x++) {
+                    for (int y = 0; y < size(z); y++) {
+                        Piece piece = place(color, orientation, x, y, z);
+                        if (piece != null && seen.add(cellsOf(piece))) {
+                            placements.add(piece);
+                        }
+                    }
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Create a piece covering the given balls, in board coordinates, e.g. to pre-place it
+     * for a starting position with {@link Board#placeBlock(Piece)}.
+     *
+     * @param color piece color
+     * @param balls {x, y, z} of every ball the piece covers
+     * @return piece in board coordinates
+     * @throws IllegalArgumentException if a ball lies outside the pyramid
+     */
+    public Piece piece(Color color, int[]... balls) {
+        int[][] points = new int[balls.length][];
+        for (int i = 0; i < balls.length; i++) {
+            if (!contains(balls[i][0], balls[i][1], balls[i][2])) {
+                throw new IllegalArgumentException(color + ": " + Arrays.toString(balls[i]) + " is not part of the pyramid");
+            }
+            points[i] = toBoard(balls[i][0], balls[i][1], balls[i][2]);
+        }
+        return new Piece(color, points);
+    }
+
+    /**
+     * Check whether a piece in board coordinates, e.g. from {@link #piece(Color, int[]...)},
+     * covers the balls of one of the placements of its color.
+     *
+     * @param piece piece in board coordinates
+     * @return true if the piece has the shape of its color and lies in a plane of the pyramid
+     */
+    public boolean isPlacement(Piece piece) {
+        Set<Integer> cells = cellsOf(piece);
+        if (cells.size() != piece.size()) {
+            return false;
+        }
+        for (Piece placement : placements(piece.getColor())) {
+            if (cells.equals(cellsOf(placement))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Piece place(Color color, int[][] orientation, int x, int y, int z) {
+        int[][] points = new int[orientation.length][];
+        for (int i = 0; i < orientation.length; i++) {
+            int ballX = x + orientation[i][0];
+            int ballY = y + orientation[i][1];
+            int ballZ = z + orientation[i][2];
+            if (!contains(ballX, ballY, ballZ)) {
+                return null;
+            }
+            points[i] = toBoard(ballX, ballY, ballZ);
+        }
+        return new Piece(color, points);
+    }
+
+    private Set<Integer> cellsOf(Piece piece) {
+        Set<Integer> cells = new HashSet<>();
+        for (int i = 0; i < piece.size(); i++) {
+            cells.add(piece.getX(i) * column + piece.getY(i));
+        }
+        return cells;
+    }
+
+    private int size(int z) {
+        return layers - z;
+    }
+
+    private static void normalize(int[][] offsets) {
+        Arrays.sort(offsets, (p, q) -> p[2] != q[2] ? Integer.compare(p[2], q[2])
+                : p[0] != q[0] ? Integer.compare(p[0], q[0]) : Integer.compare(p[1], q[1]));
+        int[] lowest = offsets[0].clone();
+        for (int[] offset : offsets) {
+            offset[0] -= lowest[0];
+            offset[1] -= lowest[1];
+            offset[2] -= lowest[2];
+        }
+    }
+}
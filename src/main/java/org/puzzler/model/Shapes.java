@@ -0,0 +1,92 @@
+package org.puzzler.model;
+
+/**
+ * Canonical shapes of the puzzle pieces.
+ *
+ * <p>Each {@link Color} identifies exactly one piece shape. The coordinates returned by
+ * {@link #of(Color)} are arrays of {x, y} integer pairs describing the relative coordinates
+ * of the piece's cells, as accepted by {@link Piece#addPoints(int[][])}.</p>
+ */
+public final class Shapes {
+    private Shapes() {}
+
+    /**
+     * Get the canonical coordinates of the piece with the given color.
+     *
+     * <p>A new array is returned on every call, so callers may modify it freely.</p>
+     *
+     * @param color piece color
+     * @return relative {x, y} coordinates of the piece's cells
+     */
+    public static int[][] of(Color color) {
+        return switch (color) {
+            case YELLOW -> new int[][]{
+                    {0, 0},
+                    {1, 0},
+                    {2, 0},
+                    {3, 0},
+                    {1, 1}};
+            case LIGTH_RED -> new int[][]{
+                    {0, 0},
+                    {1, 0},
+                    {2, 0},
+                    {3, 0},
+                    {0, 1}};
+            case PINK -> new int[][]{
+                    {0, 1},
+                    {1, 0},
+                    {2, 0},
+                    {3, 0},
+                    {1, 1}};
+            case LIGHT_BLUE -> new int[][]{
+                    {0, 0},
+                    {1, 0},
+                    {0, 1}};
+            case DARK_MINT -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {0, 2},
+                    {1, 1}};
+            case PURPLE -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {1, 1},
+                    {1, 2},
+                    {2, 2}};
+            case ORANGE -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {1, 1},
+                    {1, 2},
+                    {2, 1}};
+            case DARK_BLUE -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {1, 0},
+                    {2, 0}};
+            case GREEN -> new int[][]{
+                    {0, 0},
+                    {1, 0},
+                    {1, 1},
+                    {1, 2},
+                    {0, 2}};
+            case DARK_RED -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {1, 1},
+                    {1, 2}};
+            case LIGHT_MINT -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {1, 0},
+                    {1, 1},
+                    {2, 0}};
+            case BLUE -> new int[][]{
+                    {0, 0},
+                    {0, 1},
+                    {0, 2},
+                    {1, 0},
+                    {2, 0}};
+        };
+    }
+}
@@ -4,11 +4,9 @@ package org.puzzler.model;
  * Simple timing utility used to measure durations for different phases or runs.
  *
  * <p>The Timer supports {@link #start()} and {@link #end()} calls. Each call pair
- * records a duration which is stored internally. Call {@link #printAllDurations()}
- * to print a summary of all recorded durations and the total time.</p>
+ * records a duration which is stored internally and read with {@link #getDuration()}.</p>
  *
- * <p>This implementation uses {@link System#nanoTime()} for measurements and prints
- * durations in milliseconds with three decimal digits.</p>
+ * <p>This implementation uses {@link System#nanoTime()} for measurements.</p>
  */
 public class Timer {
     private long start;
@@ -37,31 +35,12 @@ public class Timer {
     }
 
     /**
-     * Print all recorded durations to stdout and a summary total.
+     * Get the duration of the last interval, e.g. to report it to the
+     * {@link org.puzzler.output.Output#sink() event sink}.
      *
-     * <p>Durations are printed in milliseconds with three decimal places. If no durations
-     * are recorded, the method indicates that no timing information is available.</p>
+     * @return duration in nanoseconds
      */
-    public void printAllDurations() {
-        System.out.println("Benötigte Dauer: " + this.getDurationInNs() + " ns.");
-        System.out.println("Benötigte Dauer: " + this.getDurationInMs() + " ms.");
-        System.out.println("Benötigte Dauer: " + this.getDurationInS() + " s.");
-        System.out.println("Benötigte Dauer: " + this.getDurationInMin() + " min.");
-    }
-
-    private long getDurationInNs() {
+    public long getDuration() {
         return this.duration;
     }
-
-    private double getDurationInMs() {
-        return this.duration / 1_000_000.0;
-    }
-
-    private double getDurationInS() {
-        return this.duration / 1_000_000_000.0;
-    }
-
-    private double getDurationInMin() {
-        return this.duration / 60_000_000_000.0;
-    }
 }
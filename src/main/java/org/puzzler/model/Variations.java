@@ -0,0 +1,68 @@
+package org.puzzler.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Precomputed variations (rotations and reflections) of the canonical piece shapes.
+ *
+ * <p>The variations of every {@link Color}'s canonical shape (see {@link Shapes}) are
+ * computed once when this class is initialized and shared from then on. They are exposed
+ * as immutable, array-backed lists in a fixed order, so a variation can also be identified
+ * by its index. The returned pieces are shared, and {@link Piece#addPoints(int[][])} rejects
+ * changing them.</p>
+ */
+public final class Variations {
+    private static final List<List<Piece>> LISTS;
+    private static final List<Set<Piece>> SETS;
+
+    static {
+        List<List<Piece>> lists = new ArrayList<>();
+        List<Set<Piece>> sets = new ArrayList<>();
+
+        for (Color color : Color.values()) {
+            List<Piece> variations = List.copyOf(new Piece(color, Shapes.of(color)).computeVariations());
+            Set<Piece> set = Collections.unmodifiableSet(new LinkedHashSet<>(variations));
+            for (Piece piece : variations) {
+                piece.share(set);
+            }
+            lists.add(variations);
+            sets.add(set);
+        }
+
+        LISTS = List.copyOf(lists);
+        SETS = List.copyOf(sets);
+    }
+
+    private Variations() {}
+
+    /**
+     * Get the variations of the canonical shape of a color.
+     *
+     * @param color piece color
+     * @return immutable list of normalized piece variations in a fixed order
+     */
+    public static List<Piece> of(Color color) {
+        return LISTS.get(color.ordinal());
+    }
+
+    /**
+     * Get the number of distinct variations of the canonical shape of a color.
+     *
+     * @param color piece color
+     * @return variation count
+     */
+    public static int count(Color color) {
+        return of(color).size();
+    }
+
+    /**
+     * Same variations as {@link #of(Color)}, as an immutable set.
+     */
+    static Set<Piece> setOf(Color color) {
+        return SETS.get(color.ordinal());
+    }
+}
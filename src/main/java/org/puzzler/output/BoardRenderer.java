@@ -0,0 +1,115 @@
+package org.puzzler.output;
+
+import org.puzzler.level.Level;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact, buffered console output.
+ *
+ * <p>Every event is rendered into a buffer and written with a single call. Boards are
+ * drawn with one letter per cell, {@code A} for the first {@link Color} and so on, and
+ * {@code .} for empty cells (blank outside the shape of the board), followed by a legend
+ * of the colors on the board:</p>
+ *
+ * <pre>
+ *   KKKCCCEEEFF
+ *   KKCCHHHEFFJ
+ *   LDAAAAHGFJJ
+ *   LDDIAIGGGJB
+ *   LLLIIIGBBBB
+ *   A=YELLOW B=LIGTH_RED ...
+ * </pre>
+ */
+public class BoardRenderer implements EventSink {
+    private final PrintStream out;
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    /**
+     * Create a renderer.
+     *
+     * @param out stream to write to, e.g. {@code System.out}
+     */
+    public BoardRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public synchronized void levelLoaded(Level level, List<Piece> fixed) {
+        buffer.append(level.name()).append(", set:");
+        appendColors(fixed);
+        flush();
+    }
+
+    @Override
+    public synchronized void remainingPieces(List<Piece> remaining) {
+        buffer.append("Unset:");
+        appendColors(remaining);
+        flush();
+    }
+
+    @Override
+    public synchronized void solved(Board board) {
+        buffer.append("Finished!\n");
+        appendBoard(board);
+        flush();
+    }
+
+    @Override
+    public synchronized void board(Board board) {
+        appendBoard(board);
+        flush();
+    }
+
+    @Override
+    public synchronized void duration(long nanos) {
+        buffer.append("Benötigte Dauer: ").append(nanos).append(" ns.\n");
+        buffer.append("Benötigte Dauer: ").append(nanos / 1_000_000.0).append(" ms.\n");
+        buffer.append("Benötigte Dauer: ").append(nanos / 1_000_000_000.0).append(" s.\n");
+        buffer.append("Benötigte Dauer: ").append(nanos / 60_000_000_000.0).append(" min.\n");
+        flush();
+    }
+
+    private void appendColors(List<Piece> pieces) {
+        for (Piece piece : pieces) {
+            buffer.append(' ').append(piece.getColor());
+        }
+        buffer.append('\n');
+    }
+
+    private void appendBoard(Board board) {
+        Set<Color> colors = EnumSet.noneOf(Color.class);
+        for (int x = 0; x < board.getRow(); x++) {
+            for (int y = 0; y < board.getColumn(); y++) {
+                Piece cell = board.grid[x][y];
+                if (cell != null) {
+                    colors.add(cell.getColor());
+                    buffer.append((char) ('A' + cell.getColor().ordinal()));
+                } else {
+                    // Cells outside the shape of the board are left blank
+                    buffer.append(board.getBitBoard().contains(x, y) ? '.' : ' ');
+                }
+            }
+            buffer.append('\n');
+        }
+
+        String separator = "";
+        for (Color color : colors) {
+            buffer.append(separator).append((char) ('A' + color.ordinal())).append('=').append(color);
+            separator = " ";
+        }
+        buffer.append('\n');
+    }
+
+    private void flush() {
+        out.append(buffer);
+        out.flush();
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,58 @@
+package org.puzzler.output;
+
+import org.puzzler.level.Level;
+import org.puzzler.model.Board;
+import org.puzzler.model.Piece;
+
+import java.util.List;
+
+/**
+ * Receiver of the progress events of levels and solvers.
+ *
+ * <p>Levels and solvers never write to the console themselves; they report to the sink
+ * installed in {@link Output}. All methods do nothing by default, and {@link #NONE} is
+ * the sink used unless another one is installed, so batch runs do no output at all.</p>
+ */
+public interface EventSink {
+
+    /**
+     * Sink that ignores every event.
+     */
+    EventSink NONE = new EventSink() {};
+
+    /**
+     * A level has placed its fixed pieces.
+     *
+     * @param level the level
+     * @param fixed pieces placed by the level
+     */
+    default void levelLoaded(Level level, List<Piece> fixed) {}
+
+    /**
+     * The pieces left for the solver have been determined.
+     *
+     * @param remaining pieces to place
+     */
+    default void remainingPieces(List<Piece> remaining) {}
+
+    /**
+     * A solver has written a solution to a board.
+     *
+     * @param board the solved board
+     */
+    default void solved(Board board) {}
+
+    /**
+     * A board should be shown.
+     *
+     * @param board board to show
+     */
+    default void board(Board board) {}
+
+    /**
+     * A timed run has finished.
+     *
+     * @param nanos duration of the run in nanoseconds
+     */
+    default void duration(long nanos) {}
+}
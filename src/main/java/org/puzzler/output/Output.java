@@ -0,0 +1,31 @@
+package org.puzzler.output;
+
+/**
+ * Holder of the process-wide {@link EventSink}.
+ *
+ * <p>The sink defaults to {@link EventSink#NONE}. Command line tools that want human
+ * readable output install a {@link BoardRenderer} once at startup.</p>
+ */
+public final class Output {
+    private static volatile EventSink sink = EventSink.NONE;
+
+    private Output() {}
+
+    /**
+     * Get the installed sink.
+     *
+     * @return current sink, never null
+     */
+    public static EventSink sink() {
+        return sink;
+    }
+
+    /**
+     * Install a sink.
+     *
+     * @param sink sink receiving all further events, or null for {@link EventSink#NONE}
+     */
+    public static void setSink(EventSink sink) {
+        Output.sink = sink != null ? sink : EventSink.NONE;
+    }
+}
@@ -1,44 +1,385 @@
 package org.puzzler.solver;
 
+import org.puzzler.model.BitBoard;
 import org.puzzler.model.Board;
+import org.puzzler.model.Color;
 import org.puzzler.model.Piece;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Simple backtracking solver implementation.
  *
- * The solver takes an ordered list of pieces to place. For the first piece in
- * the list it iterates over all normalized variations (rotations/reflections),
- * attempts to place it in every board cell and recurses to place the remainder.
+ * The solver takes a list of pieces to place. At every node a {@link PieceOrder}
+ * chooses one of the remaining pieces, by default the one with the fewest
+ * placements that still fit. The solver iterates over all legal placements of
+ * that piece from the {@link PlacementTable} (every normalized variation at every
+ * origin inside the board) and recurses to place the remainder. The search itself
+ * only works on the occupancy mask; the pieces are written to the board once a full
+ * placement has been found.
+ *
+ * After each placement the {@link RegionPruner} rejects boards that leave an
+ * empty region the remaining pieces cannot fill. The number of pruned nodes is
+ * available via {@link #getPrunedNodes()}, the full search statistics via
+ * {@link #getStats()}.
+ *
+ * If the starting board is mirror symmetric, one piece is restricted to one
+ * placement per group of mirror images, see {@link Symmetry}.
+ *
+ * Optionally a {@link TranspositionTable} remembers the states (occupancy and
+ * pieces still to place) whose subtree has no solution, so reaching the same
+ * state again through other placements of the earlier pieces costs one lookup.
+ *
+ * Boards of any size and shape are supported. Boards of more than 64 cells are
+ * searched on multi-word occupancy masks with the same piece order and pruning,
+ * but without symmetry breaking and transposition table.
  */
-public class Backtracking implements Solver{
+public class Backtracking extends SearchSolver {
+    private final TranspositionTable transpositions;
+    private final PieceOrder order;
+
+    /**
+     * Create a backtracking solver with region pruning and symmetry breaking enabled.
+     */
+    public Backtracking() {
+        this(true, Symmetry.Mode.EXPANDED);
+    }
+
+    /**
+     * Create a backtracking solver with symmetry breaking enabled, like every constructor that
+     * does not take a {@link Symmetry.Mode}.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     */
+    public Backtracking(boolean pruning) {
+        this(pruning, Symmetry.Mode.EXPANDED);
+    }
+
+    /**
+     * Create a backtracking solver.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     */
+    public Backtracking(boolean pruning, Symmetry.Mode symmetry) {
+        this(pruning, symmetry, 0);
+    }
+
+    /**
+     * Create a backtracking solver.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     * @param transpositions capacity of the table of dead states, 0 to disable it
+     */
+    public Backtracking(boolean pruning, Symmetry.Mode symmetry, int transpositions) {
+        this(pruning, symmetry, transpositions, PieceOrder.MOST_CONSTRAINED);
+    }
+
+    /**
+     * Create a backtracking solver.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     * @param transpositions capacity of the table of dead states, 0 to disable it
+     * @param order policy choosing the piece to place next
+     */
+    public Backtracking(boolean pruning, Symmetry.Mode symmetry, int transpositions, PieceOrder order) {
+        this(pruning, symmetry, transpositions, order, new SearchStats());
+    }
+
+    /**
+     * Create a backtracking solver that records into the statistics of another solver, e.g.
+     * for the tasks of a {@link ParallelSolver}.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     * @param transpositions capacity of the table of dead states, 0 to disable it
+     * @param order policy choosing the piece to place next
+     * @param stats statistics to record the searches in
+     */
+    Backtracking(boolean pruning, Symmetry.Mode symmetry, int transpositions, PieceOrder order, SearchStats stats) {
+        super(pruning, symmetry, stats);
+        this.transpositions = transpositions > 0 ? new TranspositionTable(transpositions) : null;
+        this.order = order;
+    }
+
     @Override
-    public boolean solve(Board board, List<Piece> pieces) {
-        if (pieces.isEmpty()) {
-            System.out.println("Finished!");
-            System.out.println();
+    Search compact(BitBoard board, List<Piece> pieces) {
+        return new Search(board, pieces, stats.begin(), null);
+    }
+
+    @Override
+    WideSearch wide(BitBoard board, List<Piece> pieces) {
+        return new WideSearch(board, pieces);
+    }
+
+    /**
+     * Get the table of dead states, e.g. to inspect its stores and evictions. Its hits and
+     * misses are part of {@link #getStats()}.
+     *
+     * @return transposition table, or null if disabled
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositions;
+    }
+
+    /**
+     * Begin a search on a compact board whose tree is explored by several threads, like
+     * {@link ParallelSolver} does. The returned root state detects the symmetry of the board
+     * and records the search; every thread continues on its own {@link #branch(Search,
+     * SearchStats.Recorder)}.
+     *
+     * @param board starting board
+     * @param pieces pieces to place
+     * @param cancelled flag that stops every branch's {@link Search#search} once raised, or
+     *                  null if the search is never cancelled
+     * @return root state of the search
+     */
+    Search root(Board board, List<Piece> pieces, AtomicBoolean cancelled) {
+        return new Search(board.getBitBoard(), pieces, stats.begin(), cancelled);
+    }
+
+    /**
+     * Continue a search begun by {@link #root(Board, List, AtomicBoolean)} on the calling
+     * thread, with the pruner and piece order of this solver.
+     *
+     * @param root root state of the search, possibly of another solver
+     * @param recorder statistics of the calling thread
+     * @return search state sharing the table and pieces of the root
+     */
+    Search branch(Search root, SearchStats.Recorder recorder) {
+        return new Search(root, recorder);
+    }
+
+    /**
+     * Per-call search state on boards of at most 64 cells.
+     */
+    final class Search extends CompactState {
+        final AtomicBoolean cancelled;
+
+        Search(BitBoard board, List<Piece> pieces, SearchStats.Recorder recorder, AtomicBoolean cancelled) {
+            super(board, pieces, recorder);
+            this.cancelled = cancelled;
+
+            if (transpositions != null) {
+                transpositions.clear();
+            }
+        }
+
+        Search(Search root, SearchStats.Recorder recorder) {
+            super(root, recorder);
+            cancelled = root.cancelled;
+        }
+
+        /**
+         * Choose the piece to place next, see {@link PieceOrder}.
+         */
+        int next(long occupied, int remaining) {
+            return order.next(occupied, remaining, colors, table);
+        }
+
+        /**
+         * Colors of the remaining pieces, one bit per color ordinal.
+         */
+        int colorsOf(int remaining) {
+            int pieces = 0;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                pieces |= 1 << colors[Integer.numberOfTrailingZeros(rest)].ordinal();
+            }
+            return pieces;
+        }
+
+        /**
+         * Look up a state in the transposition table, recording the hit or miss.
+         */
+        boolean isKnownDead(long occupied, int remaining) {
+            if (transpositions == null) {
+                return false;
+            }
+            if (transpositions.isDead(occupied, colorsOf(remaining))) {
+                recorder.transpositionHits++;
+                return true;
+            }
+            recorder.transpositionMisses++;
+            return false;
+        }
+
+        /**
+         * Record a state without solutions whose subtree started at the given node count.
+         */
+        void markDead(long occupied, int remaining, long since) {
+            if (transpositions != null) {
+                transpositions.markDead(occupied, colorsOf(remaining), recorder.nodes - since);
+            }
+        }
+
+        @Override
+        boolean search(long occupied, int remaining, int depth, Placement[] chosen, SolutionSink sink) {
+            if (cancelled != null && cancelled.get()) {
+                return false;
+            }
+            recorder.nodes++;
+            if (remaining == 0) {
+                recorder.solution();
+                return sink.accept(new Solution(chosen));
+            }
+            if (isKnownDead(occupied, remaining)) {
+                return true;
+            }
+            long nodes = recorder.nodes;
+            long solutions = recorder.solutions;
+
+            int piece = next(occupied, remaining);
+            int left = remaining & ~(1 << piece);
+            long sums = sums(left);
+            Placement[] placements = table.placements(colors[piece]);
+            long[] masks = table.masks(colors[piece]);
+
+            // Counted locally and recorded once per node to keep the loop tight
+            int overlaps = 0;
+            for (int i = 0; i < masks.length; i++) {
+                if ((occupied & masks[i]) != 0) {
+                    overlaps++;
+                } else if (isViable(occupied, masks[i], sums)) {
+                    chosen[depth] = placements[i];
+
+                    // Recursive
+                    if (!search(occupied | masks[i], left, depth + 1, chosen, sink)) {
+                        expand(i + 1, overlaps);
+                        return false;
+                    }
+                    recorder.backtrack(depth);
+                }
+            }
+
+            expand(masks.length, overlaps);
+            if (recorder.solutions == solutions) {
+                markDead(occupied, remaining, nodes);
+            }
             return true;
         }
 
-        Piece original = pieces.get(0);
+        @Override
+        long count(long occupied, int remaining, int depth) {
+            recorder.nodes++;
+            if (remaining == 0) {
+                recorder.solution();
+                return 1;
+            }
+            if (isKnownDead(occupied, remaining)) {
+                return 0;
+            }
+            long nodes = recorder.nodes;
+
+            int piece = next(occupied, remaining);
+            int left = remaining & ~(1 << piece);
+            long sums = sums(left);
+            long[] masks = table.masks(colors[piece]);
+            int[] weights = table.weights(colors[piece]);
+
+            long solutions = 0;
+            int overlaps = 0;
+            for (int i = 0; i < masks.length; i++) {
+                if ((occupied & masks[i]) != 0) {
+                    overlaps++;
+                } else if (isViable(occupied, masks[i], sums)) {
+                    solutions += weights[i] * count(occupied | masks[i], left, depth + 1);
+                    recorder.backtrack(depth);
+                }
+            }
+
+            expand(masks.length, overlaps);
+            if (solutions == 0) {
+                markDead(occupied, remaining, nodes);
+            }
+            return solutions;
+        }
+    }
+
+    /**
+     * Per-call search state on boards of more than 64 cells.
+     */
+    private final class WideSearch extends WideState {
+        WideSearch(BitBoard board, List<Piece> pieces) {
+            super(board, pieces);
+        }
 
-        for (Piece piece : original.getAllVariations()) {
-            for (int x = 0; x < board.getRow(); x++) {
-                for (int y = 0; y < board.getColumn(); y++) {
-                    if (board.checkPlacementOfPiece(piece, x, y)) {
-                        board.placeRemainingBlock(piece, x, y);
+        /**
+         * Choose the piece of a node and prepare the sums of the pieces left after it.
+         */
+        int choose(int remaining, int depth) {
+            int piece = order.next(occupied[depth], remaining, colors, table);
+            prepare(remaining & ~(1 << piece), depth);
+            return piece;
+        }
+
+        @Override
+        boolean search(int remaining, int depth, Placement[] chosen, SolutionSink sink) {
+            recorder.nodes++;
+            if (remaining == 0) {
+                recorder.solution();
+                return sink.accept(new Solution(chosen));
+            }
 
-                        // Recursive
-                        if (solve(board, pieces.subList(1, pieces.size()))) {
-                            return true;
-                        }
+            int piece = choose(remaining, depth);
+            int left = remaining & ~(1 << piece);
+            Placement[] placements = table.placements(colors[piece]);
+            int[] first = table.firstWords(colors[piece]);
+            long[] words = table.words(colors[piece]);
+
+            int overlaps = 0;
+            for (int i = 0; i < placements.length; i++) {
+                if (!PlacementTable.fits(occupied[depth], first[i], words, i * span, span)) {
+                    overlaps++;
+                    continue;
+                }
+                place(depth, first[i], words, i * span);
+                if (isViable(depth, first[i], words, i * span)) {
+                    chosen[depth] = placements[i];
 
-                        board.removeBlock(piece, x, y);
+                    // Recursive
+                    if (!search(left, depth + 1, chosen, sink)) {
+                        expand(i + 1, overlaps);
+                        return false;
                     }
+                    recorder.backtrack(depth);
                 }
             }
+
+            expand(placements.length, overlaps);
+            return true;
         }
 
-        return false;
+        @Override
+        long count(int remaining, int depth) {
+            recorder.nodes++;
+            if (remaining == 0) {
+                recorder.solution();
+                return 1;
+            }
+
+            int piece = choose(remaining, depth);
+            int left = remaining & ~(1 << piece);
+            int[] first = table.firstWords(colors[piece]);
+            long[] words = table.words(colors[piece]);
+
+            long solutions = 0;
+            int overlaps = 0;
+            for (int i = 0; i < first.length; i++) {
+                if (!PlacementTable.fits(occupied[depth], first[i], words, i * span, span)) {
+                    overlaps++;
+                    continue;
+                }
+                place(depth, first[i], words, i * span);
+                if (isViable(depth, first[i], words, i * span)) {
+                    solutions += count(left, depth + 1);
+                    recorder.backtrack(depth);
+                }
+            }
+
+            expand(first.length, overlaps);
+            return solutions;
+        }
     }
 }
@@ -0,0 +1,494 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Cell-first backtracking solver.
+ *
+ * <p>Instead of taking the pieces in list order, the solver always looks at the lowest
+ * empty cell of the board and only tries the placements of any remaining piece that cover
+ * that cell. Since every cell before it is already occupied, such a placement must have
+ * that cell as its lowest covered cell, which the {@link PlacementTable} indexes directly.
+ * This never leaves a hole behind and explores far fewer nodes than {@link Backtracking}.</p>
+ *
+ * <p>The remaining pieces are tracked as a bitmask over the indices of the piece list.
+ * Like {@link Backtracking} the {@link RegionPruner} rejects placements that leave an
+ * unfillable empty region. The search requires the pieces to cover the empty cells
+ * exactly, which is the case for every level.</p>
+ *
+ * <p>If the starting board is mirror symmetric, one piece is restricted to one placement
+ * per group of mirror images, see {@link Symmetry}.</p>
+ *
+ * <p>The first levels of the search tree can be expanded into independent
+ * {@link Subproblem}s (see {@link #frontier(Board, List, int)}), which other solver
+ * instances, e.g. on other threads, solve with {@link #solveAll(Subproblem, SolutionSink)}.
+ * Given a random source, the solver tries the candidate placements of every node in random
+ * order, which draws random solutions.</p>
+ *
+ * <p>Boards of any size and shape are supported. On boards of more than 64 cells the
+ * occupancy is kept in several words, like in {@link Backtracking}, and the symmetry of
+ * the starting board is not used.</p>
+ */
+public class CellFirstSolver extends SearchSolver {
+    private final SplittableRandom random;
+
+    /**
+     * Create a cell-first solver with region pruning and symmetry breaking enabled.
+     */
+    public CellFirstSolver() {
+        this(true, Symmetry.Mode.EXPANDED);
+    }
+
+    /**
+     * Create a cell-first solver with symmetry breaking enabled, like every constructor that
+     * does not take a {@link Symmetry.Mode}.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     */
+    public CellFirstSolver(boolean pruning) {
+        this(pruning, Symmetry.Mode.EXPANDED);
+    }
+
+    /**
+     * Create a cell-first solver.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     */
+    public CellFirstSolver(boolean pruning, Symmetry.Mode symmetry) {
+        this(pruning, symmetry, null);
+    }
+
+    /**
+     * Create a cell-first solver.
+     *
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     * @param random source of the order in which the candidate placements of a node are
+     *               tried, or null to try them in table order
+     */
+    public CellFirstSolver(boolean pruning, Symmetry.Mode symmetry, SplittableRandom random) {
+        super(pruning, symmetry, new SearchStats());
+        this.random = random;
+    }
+
+    @Override
+    Search compact(BitBoard board, List<Piece> pieces) {
+        return new Search(board, pieces);
+    }
+
+    @Override
+    WideSearch wide(BitBoard board, List<Piece> pieces) {
+        return new WideSearch(board, pieces);
+    }
+
+    /**
+     * Expand the first levels of the search tree of a board into subproblems. Every
+     * solution of the board is a solution of exactly one subproblem, and the subproblems
+     * are listed in the same order on every call.
+     *
+     * @param board starting board, only supported with at most 64 cells
+     * @param pieces pieces to place
+     * @param depth number of pieces placed in every subproblem, unless the board is full
+     *              or the pieces run out before
+     * @return subproblems in search order
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public List<Subproblem> frontier(Board board, List<Piece> pieces, int depth) {
+        BitBoard bitBoard = board.getBitBoard();
+        if (!bitBoard.isCompact()) {
+            throw new IllegalArgumentException("Board has more than " + Long.SIZE + " cells: "
+                    + bitBoard.getRow() + "x" + bitBoard.getColumn());
+        }
+        Search search = new Search(bitBoard, pieces);
+        List<Subproblem> frontier = new ArrayList<>();
+        search.expand(bitBoard.getOccupied(), search.all, 0, depth, new Placement[pieces.size()], frontier);
+        search.recorder.finish();
+        return frontier;
+    }
+
+    /**
+     * Search all solutions of a subproblem, with the pruning and random order of this
+     * solver and the symmetry handling of the solver that created the subproblem.
+     *
+     * @param subproblem subproblem of {@link #frontier(Board, List, int)}, of any solver
+     * @param sink receiver of the solutions of the whole board, including the pieces
+     *             placed by the subproblem
+     */
+    public void solveAll(Subproblem subproblem, SolutionSink sink) {
+        Search search = new Search(subproblem.root);
+        search.search(subproblem.occupied, subproblem.remaining, subproblem.depth, subproblem.chosen.clone(),
+                search.wrap(sink));
+        search.recorder.finish();
+    }
+
+    /**
+     * Check whether the pieces can complete a board, given only its occupancy.
+     *
+     * @param board bitboard with the occupied cells, which is not modified
+     * @param pieces pieces to place
+     * @return true if a solution exists
+     */
+    boolean hasSolution(BitBoard board, List<Piece> pieces) {
+        boolean[] found = new boolean[1];
+        search(board, pieces, solution -> {
+            found[0] = true;
+            return false;
+        }, false);
+        return found[0];
+    }
+
+    /**
+     * Node of the search tree of a board: the pieces placed on the lowest empty cells so far
+     * and the pieces still to place.
+     */
+    public static final class Subproblem {
+        private final Search root;
+        private final long occupied;
+        private final int remaining;
+        private final int depth;
+        private final Placement[] chosen;
+
+        private Subproblem(Search root, long occupied, int remaining, int depth, Placement[] chosen) {
+            this.root = root;
+            this.occupied = occupied;
+            this.remaining = remaining;
+            this.depth = depth;
+            this.chosen = chosen;
+        }
+
+        /**
+         * Get the cells occupied after the pieces of the subproblem were placed.
+         *
+         * @return occupancy mask
+         */
+        public long getOccupied() {
+            return occupied;
+        }
+
+        /**
+         * Get the number of pieces placed by the subproblem.
+         *
+         * @return search depth of the subproblem
+         */
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /**
+     * Per-call search state on boards of at most 64 cells.
+     */
+    private final class Search extends CompactState {
+        final long full;
+
+        Search(BitBoard board, List<Piece> pieces) {
+            super(board, pieces, stats.begin());
+            full = board.getFull();
+        }
+
+        /**
+         * Continue the search of another solver's root state, with the pruner of this solver.
+         */
+        Search(Search root) {
+            super(root, stats.begin());
+            full = root.full;
+        }
+
+        /**
+         * Collect the nodes at the given depth as subproblems, in search order.
+         */
+        void expand(long occupied, int remaining, int depth, int split, Placement[] chosen, List<Subproblem> frontier) {
+            if (depth == split || remaining == 0 || occupied == full) {
+                frontier.add(new Subproblem(this, occupied, remaining, depth, chosen.clone()));
+                return;
+            }
+
+            recorder.nodes++;
+            int cell = Long.numberOfTrailingZeros(full & ~occupied);
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                int left = remaining & ~(1 << piece);
+                Placement[] placements = table.placements(colors[piece]);
+                long[] masks = table.masks(colors[piece]);
+                int start = table.placementsFrom(colors[piece], cell);
+                int end = table.placementsFrom(colors[piece], cell + 1);
+                long sums = sums(left);
+
+                int overlaps = 0;
+                for (int i = start; i < end; i++) {
+                    if ((occupied & masks[i]) != 0) {
+                        overlaps++;
+                    } else if (isViable(occupied, masks[i], sums)) {
+                        chosen[depth] = placements[i];
+                        expand(occupied | masks[i], left, depth + 1, split, chosen, frontier);
+                    }
+                }
+                expand(end - start, overlaps);
+            }
+        }
+
+        @Override
+        boolean search(long occupied, int remaining, int depth, Placement[] chosen, SolutionSink sink) {
+            recorder.nodes++;
+            if (remaining == 0) {
+                if (occupied != full) {
+                    return true;
+                }
+                recorder.solution();
+                return sink.accept(new Solution(chosen));
+            }
+            if (occupied == full) {
+                return true;
+            }
+
+            int cell = Long.numberOfTrailingZeros(full & ~occupied);
+            if (random != null) {
+                return shuffled(occupied, remaining, depth, cell, chosen, sink);
+            }
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                int left = remaining & ~(1 << piece);
+                Placement[] placements = table.placements(colors[piece]);
+                long[] masks = table.masks(colors[piece]);
+                int start = table.placementsFrom(colors[piece], cell);
+                int end = table.placementsFrom(colors[piece], cell + 1);
+                long sums = sums(left);
+
+                // Counted locally and recorded once per piece to keep the loop tight
+                int overlaps = 0;
+                for (int i = start; i < end; i++) {
+                    if ((occupied & masks[i]) != 0) {
+                        overlaps++;
+                    } else if (isViable(occupied, masks[i], sums)) {
+                        chosen[depth] = placements[i];
+
+                        // Recursive
+                        if (!search(occupied | masks[i], left, depth + 1, chosen, sink)) {
+                            expand(i + 1 - start, overlaps);
+                            return false;
+                        }
+                        recorder.backtrack(depth);
+                    }
+                }
+                expand(end - start, overlaps);
+            }
+            return true;
+        }
+
+        /**
+         * Try the candidate placements of all remaining pieces covering the cell in random
+         * order, see {@link #search}.
+         */
+        boolean shuffled(long occupied, int remaining, int depth, int cell, Placement[] chosen, SolutionSink sink) {
+            int candidates = 0;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                Color color = colors[Integer.numberOfTrailingZeros(rest)];
+                candidates += table.placementsFrom(color, cell + 1) - table.placementsFrom(color, cell);
+            }
+
+            // Only the candidates that do not overlap are drawn from
+            int[] pieces = new int[candidates];
+            int[] indices = new int[candidates];
+            int fitting = 0;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                long[] masks = table.masks(colors[piece]);
+                int end = table.placementsFrom(colors[piece], cell + 1);
+                for (int i = table.placementsFrom(colors[piece], cell); i < end; i++) {
+                    if ((occupied & masks[i]) == 0) {
+                        pieces[fitting] = piece;
+                        indices[fitting++] = i;
+                    }
+                }
+            }
+            expand(candidates, candidates - fitting);
+
+            // Draw the candidates one by one without replacement
+            for (int n = fitting; n > 0; n--) {
+                int pick = random.nextInt(n);
+                int piece = pieces[pick];
+                int i = indices[pick];
+                pieces[pick] = pieces[n - 1];
+                indices[pick] = indices[n - 1];
+
+                int left = remaining & ~(1 << piece);
+                long mask = table.masks(colors[piece])[i];
+                if (isViable(occupied, mask, sums(left))) {
+                    chosen[depth] = table.placements(colors[piece])[i];
+
+                    // Recursive
+                    if (!search(occupied | mask, left, depth + 1, chosen, sink)) {
+                        return false;
+                    }
+                    recorder.backtrack(depth);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long count(long occupied, int remaining, int depth) {
+            recorder.nodes++;
+            if (remaining == 0) {
+                if (occupied != full) {
+                    return 0;
+                }
+                recorder.solution();
+                return 1;
+            }
+            if (occupied == full) {
+                return 0;
+            }
+
+            long solutions = 0;
+            int cell = Long.numberOfTrailingZeros(full & ~occupied);
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                int left = remaining & ~(1 << piece);
+                long[] masks = table.masks(colors[piece]);
+                int[] weights = table.weights(colors[piece]);
+                int start = table.placementsFrom(colors[piece], cell);
+                int end = table.placementsFrom(colors[piece], cell + 1);
+                long sums = sums(left);
+
+                int overlaps = 0;
+                for (int i = start; i < end; i++) {
+                    if ((occupied & masks[i]) != 0) {
+                        overlaps++;
+                    } else if (isViable(occupied, masks[i], sums)) {
+                        solutions += weights[i] * count(occupied | masks[i], left, depth + 1);
+                        recorder.backtrack(depth);
+                    }
+                }
+                expand(end - start, overlaps);
+            }
+            return solutions;
+        }
+    }
+
+    /**
+     * Per-call search state on boards of more than 64 cells.
+     */
+    private final class WideSearch extends WideState {
+        final long[] full;
+
+        WideSearch(BitBoard board, List<Piece> pieces) {
+            super(board, pieces);
+            full = board.getFullWords();
+        }
+
+        /**
+         * Find the lowest empty cell at a depth.
+         *
+         * @return bit index of the cell, or -1 if the board is full
+         */
+        int lowestEmpty(int depth) {
+            long[] current = occupied[depth];
+            for (int word = 0; word < full.length; word++) {
+                long empty = full[word] & ~current[word];
+                if (empty != 0) {
+                    return word * Long.SIZE + Long.numberOfTrailingZeros(empty);
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        boolean search(int remaining, int depth, Placement[] chosen, SolutionSink sink) {
+            recorder.nodes++;
+            int cell = lowestEmpty(depth);
+            if (remaining == 0) {
+                if (cell >= 0) {
+                    return true;
+                }
+                recorder.solution();
+                return sink.accept(new Solution(chosen));
+            }
+            if (cell < 0) {
+                return true;
+            }
+
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                int left = remaining & ~(1 << piece);
+                Placement[] placements = table.placements(colors[piece]);
+                int[] first = table.firstWords(colors[piece]);
+                long[] words = table.words(colors[piece]);
+                int start = table.placementsFrom(colors[piece], cell);
+                int end = table.placementsFrom(colors[piece], cell + 1);
+                prepare(left, depth);
+
+                int overlaps = 0;
+                for (int i = start; i < end; i++) {
+                    if (!PlacementTable.fits(occupied[depth], first[i], words, i * span, span)) {
+                        overlaps++;
+                        continue;
+                    }
+                    place(depth, first[i], words, i * span);
+                    if (isViable(depth, first[i], words, i * span)) {
+                        chosen[depth] = placements[i];
+
+                        // Recursive
+                        if (!search(left, depth + 1, chosen, sink)) {
+                            expand(i + 1 - start, overlaps);
+                            return false;
+                        }
+                        recorder.backtrack(depth);
+                    }
+                }
+                expand(end - start, overlaps);
+            }
+            return true;
+        }
+
+        @Override
+        long count(int remaining, int depth) {
+            recorder.nodes++;
+            int cell = lowestEmpty(depth);
+            if (remaining == 0) {
+                if (cell >= 0) {
+                    return 0;
+                }
+                recorder.solution();
+                return 1;
+            }
+            if (cell < 0) {
+                return 0;
+            }
+
+            long solutions = 0;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                int left = remaining & ~(1 << piece);
+                int[] first = table.firstWords(colors[piece]);
+                long[] words = table.words(colors[piece]);
+                int start = table.placementsFrom(colors[piece], cell);
+                int end = table.placementsFrom(colors[piece], cell + 1);
+                prepare(left, depth);
+
+                int overlaps = 0;
+                for (int i = start; i < end; i++) {
+                    if (!PlacementTable.fits(occupied[depth], first[i], words, i * span, span)) {
+                        overlaps++;
+                        continue;
+                    }
+                    place(depth, first[i], words, i * span);
+                    if (isViable(depth, first[i], words, i * span)) {
+                        solutions += count(left, depth + 1);
+                        recorder.backtrack(depth);
+                    }
+                }
+                expand(end - start, overlaps);
+            }
+            return solutions;
+        }
+    }
+}
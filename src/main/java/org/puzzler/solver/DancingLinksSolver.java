@@ -0,0 +1,300 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Pyramid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact-cover solver based on Knuth's Algorithm X with Dancing Links.
+ *
+ * <p>The puzzle is modelled as an exact-cover matrix: there is one column for every
+ * empty board cell and one column for every remaining piece color. Every legal
+ * placement from the {@link PlacementTable} that only covers empty cells becomes a row
+ * covering its color column and its cell columns. The search always branches on the
+ * column with the fewest remaining rows (minimum remaining values), so dead ends such
+ * as an unreachable cell are detected immediately.</p>
+ *
+ * <p>The linked structure is stored in parallel {@code int} arrays rather than node
+ * objects to keep the covering and uncovering loops allocation free. Rows that overlap
+ * a chosen placement are unlinked by the covering, so the {@link SearchStats} of this
+ * solver never report overlap rejections. The matrix is
+ * rebuilt on every call and kept in the instance, so a solver instance must not be
+ * shared between threads.</p>
+ *
+ * <p>Boards of any size and shape are supported, since the matrix is built from the
+ * covered cells of the placements rather than their masks. Given the placement table
+ * of the pyramid, the solver solves the 3D pyramid mode, see {@link Pyramid}.</p>
+ */
+public class DancingLinksSolver implements Solver {
+    private final SearchStats stats = new SearchStats();
+    private final PlacementTable fixed;
+    private SearchStats.Recorder recorder;
+    private PlacementTable table;
+
+    private int[] left;
+    private int[] right;
+    private int[] up;
+    private int[] down;
+    private int[] column;
+    private int[] rowOf;
+    private int[] size;
+    private Placement[] rows;
+
+    /**
+     * Create a solver for the flat placements of the board it is given.
+     */
+    public DancingLinksSolver() {
+        this(null);
+    }
+
+    /**
+     * Create a solver for a fixed set of placements, e.g. {@link PlacementTable#of(Pyramid)}
+     * for the 3D pyramid mode. The boards passed to the solver must be the board the
+     * placements lie on, e.g. {@link Pyramid#newBoard()}.
+     *
+     * @param table placements to choose from, or null for the flat placements of each board
+     */
+    public DancingLinksSolver(PlacementTable table) {
+        this.fixed = table;
+    }
+
+    @Override
+    public void solveAll(Board board, List<Piece> pieces, SolutionSink sink) {
+        recorder = stats.begin();
+        build(board, pieces);
+        search(0, new Placement[pieces.size()], sink);
+        recorder.finish();
+    }
+
+    @Override
+    public long countSolutions(Board board, List<Piece> pieces) {
+        recorder = stats.begin();
+        build(board, pieces);
+        long solutions = count(0);
+        recorder.finish();
+        return solutions;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Build the exact-cover matrix for the empty cells of the board and the remaining pieces.
+     *
+     * @param board board with the pre-placed pieces
+     * @param pieces pieces to place
+     */
+    private void build(Board board, List<Piece> pieces) {
+        BitBoard bitBoard = board.getBitBoard();
+        table = fixed != null ? fixed : PlacementTable.of(bitBoard);
+        long[] full = bitBoard.getFullWords();
+        long[] occupied = bitBoard.getOccupiedWords();
+
+        // Column of every empty cell, indexed by bit position, 0 for cells that are not empty
+        int[] cellColumn = new int[bitBoard.getRow() * bitBoard.getColumn()];
+        int cells = 0;
+        for (int word = 0; word < full.length; word++) {
+            for (long rest = full[word] & ~occupied[word]; rest != 0; rest &= rest - 1) {
+                cellColumn[word * Long.SIZE + Long.numberOfTrailingZeros(rest)] = ++cells;
+            }
+        }
+        int columns = cells + pieces.size();
+
+        // Rows of the placements that only cover empty cells, grouped by piece
+        List<Placement> rowList = new ArrayList<>();
+        List<int[]> rowCells = new ArrayList<>();
+        int[] firstRow = new int[pieces.size() + 1];
+        int nodeCount = columns + 1;
+        for (int p = 0; p < pieces.size(); p++) {
+            Color color = pieces.get(p).getColor();
+            Placement[] placements = table.placements(color);
+            placements:
+            for (int i = 0; i < placements.length; i++) {
+                int[] covered = table.cells(color, i);
+                for (int cell : covered) {
+                    if (cellColumn[cell] == 0) {
+                        continue placements;
+                    }
+                }
+                rowList.add(placements[i]);
+                rowCells.add(covered);
+                nodeCount += covered.length + 1;
+            }
+            firstRow[p + 1] = rowList.size();
+        }
+
+        left = new int[nodeCount];
+        right = new int[nodeCount];
+        up = new int[nodeCount];
+        down = new int[nodeCount];
+        column = new int[nodeCount];
+        rowOf = new int[nodeCount];
+        size = new int[columns + 1];
+        rows = rowList.toArray(new Placement[0]);
+
+        // Header row: node 0 is the root, nodes 1..columns are the column headers
+        for (int c = 0; c <= columns; c++) {
+            left[c] = c == 0 ? columns : c - 1;
+            right[c] = c == columns ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        int node = columns + 1;
+        for (int p = 0; p < pieces.size(); p++) {
+            int pieceColumn = cells + 1 + p;
+            for (int row = firstRow[p]; row < firstRow[p + 1]; row++) {
+                int first = node;
+                node = append(node, pieceColumn, row, first);
+                for (int cell : rowCells.get(row)) {
+                    node = append(node, cellColumn[cell], row, first);
+                }
+            }
+        }
+    }
+
+    /**
+     * Append a node to the bottom of a column and to the end of the current row.
+     *
+     * @return index of the next free node
+     */
+    private int append(int node, int col, int row, int first) {
+        column[node] = col;
+        rowOf[node] = row;
+
+        up[node] = up[col];
+        down[node] = col;
+        down[up[col]] = node;
+        up[col] = node;
+        size[col]++;
+
+        if (node == first) {
+            left[node] = node;
+            right[node] = node;
+        } else {
+            left[node] = left[first];
+            right[node] = first;
+            right[left[first]] = node;
+            left[first] = node;
+        }
+        return node + 1;
+    }
+
+    /**
+     * Choose the column with the fewest rows (minimum remaining values).
+     *
+     * @return the column, or -1 if some column can no longer be covered
+     */
+    private int chooseColumn() {
+        int col = right[0];
+        for (int c = right[col]; c != 0; c = right[c]) {
+            if (size[c] < size[col]) {
+                col = c;
+            }
+        }
+        return size[col] == 0 ? -1 : col;
+    }
+
+    /**
+     * @return false if the sink requested to stop the search
+     */
+    private boolean search(int depth, Placement[] chosen, SolutionSink sink) {
+        recorder.nodes++;
+        if (right[0] == 0) {
+            recorder.solution();
+            return sink.accept(new Solution(depth == chosen.length ? chosen : Arrays.copyOf(chosen, depth)));
+        }
+
+        int col = chooseColumn();
+        if (col < 0) {
+            return true;
+        }
+
+        boolean proceed = true;
+        cover(col);
+        for (int r = down[col]; r != col && proceed; r = down[r]) {
+            recorder.tried++;
+            chosen[depth] = rows[rowOf[r]];
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+
+            // Recursive
+            proceed = search(depth + 1, chosen, sink);
+
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            recorder.backtrack(depth);
+        }
+        uncover(col);
+
+        return proceed;
+    }
+
+    private long count(int depth) {
+        recorder.nodes++;
+        if (right[0] == 0) {
+            recorder.solution();
+            return 1;
+        }
+
+        int col = chooseColumn();
+        if (col < 0) {
+            return 0;
+        }
+
+        long solutions = 0;
+        cover(col);
+        for (int r = down[col]; r != col; r = down[r]) {
+            recorder.tried++;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+
+            // Recursive
+            solutions += count(depth + 1);
+
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            recorder.backtrack(depth);
+        }
+        uncover(col);
+
+        return solutions;
+    }
+
+    private void cover(int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+}
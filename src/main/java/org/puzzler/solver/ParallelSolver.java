@@ -0,0 +1,198 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parallel backtracking solver based on the fork/join framework.
+ *
+ * <p>The search is the one of {@link Backtracking} with region pruning and
+ * {@link PieceOrder#MOST_CONSTRAINED}, and breaks the symmetry of the starting board like
+ * {@link Symmetry.Mode#EXPANDED}. On the first {@code splitDepth} levels of the search tree
+ * every viable placement becomes its own {@link RecursiveTask} with its own copy of the
+ * occupancy mask; below that depth each task continues with a sequential
+ * {@link Backtracking} search of its own. Tasks share a cancellation flag which is raised
+ * as soon as the search can stop (first solution found or the sink asked to stop) and
+ * which is checked at every node.</p>
+ *
+ * <p>Counts are merged by summing the subtask results and are therefore deterministic.
+ * Solutions passed to a {@link SolutionSink} are delivered one at a time, but their order
+ * depends on thread scheduling.</p>
+ *
+ * <p>Tasks run in the common pool unless a pool is given, whose lifecycle then stays with
+ * the caller. Boards of more than 64 cells are searched sequentially.</p>
+ */
+public class ParallelSolver implements Solver {
+    private final SearchStats stats = new SearchStats();
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    // Sets up every search, and searches the boards of more than 64 cells
+    private final Backtracking root;
+
+    /**
+     * Create a parallel solver running in the common pool with a split depth of 2.
+     */
+    public ParallelSolver() {
+        this(2);
+    }
+
+    /**
+     * Create a parallel solver running in the common pool.
+     *
+     * @param splitDepth number of search levels whose branches are forked as separate tasks
+     */
+    public ParallelSolver(int splitDepth) {
+        this(ForkJoinPool.commonPool(), splitDepth);
+    }
+
+    /**
+     * Create a parallel solver.
+     *
+     * @param pool pool running the tasks, not shut down by the solver
+     * @param splitDepth number of search levels whose branches are forked as separate tasks
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("Invalid configuration: splitDepth=" + splitDepth);
+        }
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.root = new Backtracking(true, Symmetry.Mode.EXPANDED, 0, PieceOrder.MOST_CONSTRAINED, stats);
+    }
+
+    @Override
+    public void solveAll(Board board, List<Piece> pieces, SolutionSink sink) {
+        if (!board.getBitBoard().isCompact()) {
+            root.solveAll(board, pieces, sink);
+            return;
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Backtracking.Search search = root.root(board, pieces, cancelled);
+        SolutionSink wrapped = search.wrap(sink);
+        SolutionSink report = solution -> {
+            synchronized (cancelled) {
+                if (cancelled.get()) {
+                    return false;
+                }
+                if (!wrapped.accept(solution)) {
+                    cancelled.set(true);
+                    return false;
+                }
+                return true;
+            }
+        };
+        pool.invoke(new SearchTask(search, report, board.getBitBoard().getOccupied(), search.all, 0,
+                new Placement[pieces.size()]));
+        search.recorder.finish();
+    }
+
+    @Override
+    public long countSolutions(Board board, List<Piece> pieces) {
+        if (!board.getBitBoard().isCompact()) {
+            return root.countSolutions(board, pieces);
+        }
+        Backtracking.Search search = root.root(board, pieces, null);
+        long solutions = pool.invoke(new SearchTask(search, null, board.getBitBoard().getOccupied(), search.all, 0, null));
+        search.recorder.finish();
+        return solutions;
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * One branch of the search tree with its own copy of the board state.
+     */
+    private final class SearchTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Backtracking.Search search;
+        private final transient SolutionSink sink;
+        private final long occupied;
+        private final int remaining;
+        private final int depth;
+        private final transient Placement[] chosen;
+
+        /**
+         * @param sink receiver of the solutions, or null when only counting
+         */
+        SearchTask(Backtracking.Search search, SolutionSink sink, long occupied, int remaining, int depth,
+                   Placement[] chosen) {
+            this.search = search;
+            this.sink = sink;
+            this.occupied = occupied;
+            this.remaining = remaining;
+            this.depth = depth;
+            this.chosen = chosen;
+        }
+
+        @Override
+        protected Long compute() {
+            SearchStats.Recorder recorder = stats.fork(search.recorder);
+            try {
+                // Pruners and the piece order keep state, so every task has its own solver
+                Backtracking solver = new Backtracking(true, Symmetry.Mode.NONE, 0, PieceOrder.MOST_CONSTRAINED, stats);
+                return compute(solver.branch(search, recorder));
+            } finally {
+                recorder.merge();
+            }
+        }
+
+        private long compute(Backtracking.Search branch) {
+            if (depth >= splitDepth || remaining == 0) {
+                if (sink == null) {
+                    return branch.count(occupied, remaining, depth);
+                }
+                branch.search(occupied, remaining, depth, chosen, sink);
+                return 0;
+            }
+            if (sink != null && branch.cancelled.get()) {
+                return 0;
+            }
+
+            SearchStats.Recorder recorder = branch.recorder;
+            recorder.nodes++;
+            int piece = branch.next(occupied, remaining);
+            Color color = branch.colors[piece];
+            int left = remaining & ~(1 << piece);
+            long sums = branch.sums(left);
+            Placement[] placements = branch.table.placements(color);
+            long[] masks = branch.table.masks(color);
+            int[] weights = branch.table.weights(color);
+            recorder.tried += masks.length;
+
+            List<SearchTask> tasks = new ArrayList<>();
+            List<Integer> taskWeights = new ArrayList<>();
+            for (int i = 0; i < masks.length; i++) {
+                if ((occupied & masks[i]) != 0) {
+                    recorder.rejectedByOverlap++;
+                } else if (branch.isViable(occupied, masks[i], sums)) {
+                    Placement[] next = null;
+                    if (chosen != null) {
+                        next = chosen.clone();
+                        next[depth] = placements[i];
+                    }
+                    tasks.add(new SearchTask(search, sink, occupied | masks[i], left, depth + 1, next));
+                    taskWeights.add(weights[i]);
+                }
+            }
+
+            long solutions = 0;
+            invokeAll(tasks);
+            for (int i = 0; i < tasks.size(); i++) {
+                solutions += taskWeights.get(i) * tasks.get(i).join();
+                recorder.backtrack(depth);
+            }
+            return solutions;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.Color;
+
+/**
+ * Policy choosing which piece {@link Backtracking} places next.
+ *
+ * <p>The policy is asked at every node of the search. Policies outside this package can
+ * count fitting placements with {@link PlacementTable#getPlacements(Color)} and
+ * {@link Placement#getMask()}.</p>
+ */
+@FunctionalInterface
+public interface PieceOrder {
+
+    /**
+     * Place the pieces in the order of the piece list.
+     */
+    PieceOrder LIST = (occupied, remaining, colors, table) -> Integer.numberOfTrailingZeros(remaining);
+
+    /**
+     * Place the piece with the fewest placements that fit the current board first, which
+     * keeps the branching factor low and fails early on pieces that no longer fit at all.
+     * Ties go to the piece earlier in the list.
+     */
+    PieceOrder MOST_CONSTRAINED = new PieceOrder() {
+        @Override
+        public int next(long occupied, int remaining, Color[] colors, PlacementTable table) {
+            int best = Integer.numberOfTrailingZeros(remaining);
+            int fewest = Integer.MAX_VALUE;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+
+                // Stop counting as soon as the piece cannot beat the best one
+                int fitting = 0;
+                for (long mask : table.masks(colors[piece])) {
+                    if ((occupied & mask) == 0 && ++fitting >= fewest) {
+                        break;
+                    }
+                }
+                if (fitting < fewest) {
+                    best = piece;
+                    fewest = fitting;
+                    if (fitting == 0) {
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public int next(long[] occupied, int remaining, Color[] colors, PlacementTable table) {
+            int span = table.span();
+            int best = Integer.numberOfTrailingZeros(remaining);
+            int fewest = Integer.MAX_VALUE;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                int piece = Integer.numberOfTrailingZeros(rest);
+                int[] first = table.firstWords(colors[piece]);
+                long[] words = table.words(colors[piece]);
+
+                int fitting = 0;
+                for (int i = 0; i < first.length; i++) {
+                    if (PlacementTable.fits(occupied, first[i], words, i * span, span) && ++fitting >= fewest) {
+                        break;
+                    }
+                }
+                if (fitting < fewest) {
+                    best = piece;
+                    fewest = fitting;
+                    if (fitting == 0) {
+                        break;
+                    }
+                }
+            }
+            return best;
+        }
+    };
+
+    /**
+     * Choose the next piece.
+     *
+     * @param occupied occupancy mask of the board
+     * @param remaining bit {@code i} set if the piece at index {@code i} of the list is still to place (not 0)
+     * @param colors colors of the pieces, by list index
+     * @param table placement table of the search
+     * @return list index of the piece to place next, one of the bits of {@code remaining}
+     */
+    int next(long occupied, int remaining, Color[] colors, PlacementTable table);
+
+    /**
+     * Choose the next piece on a board of more than 64 cells, see
+     * {@link PlacementTable#isCompact()}. Unless overridden, the pieces are placed in list
+     * order on such boards.
+     *
+     * @param occupied occupancy of the board, 64 cells per word
+     * @param remaining bit {@code i} set if the piece at index {@code i} of the list is still to place (not 0)
+     * @param colors colors of the pieces, by list index
+     * @param table placement table of the search
+     * @return list index of the piece to place next, one of the bits of {@code remaining}
+     */
+    default int next(long[] occupied, int remaining, Color[] colors, PlacementTable table) {
+        return Integer.numberOfTrailingZeros(remaining);
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+/**
+ * A single legal placement of a piece on the board.
+ *
+ * <p>A placement combines a normalized piece variation with the board origin it is placed
+ * at and the resulting cell mask (see {@link org.puzzler.model.BitBoard}). Placements are
+ * immutable and shared between all solver instances through the {@link PlacementTable}.</p>
+ */
+public final class Placement {
+    private final Piece piece;
+    private final int x;
+    private final int y;
+    private final long mask;
+
+    Placement(Piece piece, int x, int y, long mask) {
+        this.piece = piece;
+        this.x = x;
+        this.y = y;
+        this.mask = mask;
+    }
+
+    /**
+     * Get the piece color.
+     *
+     * @return color identifier of the placed piece
+     */
+    public Color getColor() {
+        return piece.getColor();
+    }
+
+    /**
+     * Get the normalized piece variation of this placement.
+     *
+     * @return piece variation (its coordinates are relative)
+     */
+    public Piece getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get the origin x coordinate (row).
+     *
+     * @return origin row
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the origin y coordinate (column).
+     *
+     * @return origin column
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get the cell mask covered by this placement.
+     *
+     * @return cell mask, or 0 on boards of more than 64 cells
+     */
+    public long getMask() {
+        return mask;
+    }
+}
@@ -0,0 +1,453 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Pyramid;
+import org.puzzler.model.Shapes;
+import org.puzzler.model.Variations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable index of every legal placement of every piece on the board.
+ *
+ * <p>For each {@link Color} the table lists all (variation, origin) combinations of the
+ * canonical shape (see {@link Shapes} and {@link Variations}) that lie completely inside the board, together with
+ * their cell masks. Since the variations are unique, every distinct set of cells is listed
+ * once. The placements of a color are ordered by their lowest
+ * covered cell, so a cell-first search can look up the placements covering a given empty
+ * cell directly. The table of the standard board is built once per JVM and shared by all
+ * solver instances, and so are the tables of the few boards used most recently (see
+ * {@link #of(BitBoard)}), so solvers neither regenerate variations nor probe origins that
+ * are out of bounds. Callers solving many other boards hold on to their tables
+ * themselves.</p>
+ *
+ * <p>On boards of more than 64 cells a placement has no single word mask. Instead the
+ * table stores, for each placement, the index of the first word it covers and its cells
+ * in the following {@link #span()} words, which is all a piece can reach. Checking such a
+ * placement therefore costs a few ANDs, independent of the size of the board.</p>
+ *
+ * <p>The table of the 3D pyramid mode ({@link #of(Pyramid)}) lists the placements of the
+ * pieces in the pyramid instead, on the board the pyramid is unfolded onto. Solvers that
+ * accept a table (see {@link DancingLinksSolver#DancingLinksSolver(PlacementTable)}) solve
+ * the pyramid like a flat board.</p>
+ */
+public final class PlacementTable {
+    private static final Cache<Geometry> TABLES = new Cache<>();
+    private static final Cache<Integer> PYRAMIDS = new Cache<>();
+
+    private final int column;
+    private final int cells;
+    private final int span;
+    private final Placement[][] placements;
+    private final long[][] masks;
+    private final int[][] firstWords;
+    private final long[][] words;
+    private final int[][] weights;
+    private final int[][] offsets;
+
+    private PlacementTable(BitBoard bitBoard) {
+        this(bitBoard, color -> planar(bitBoard, color));
+    }
+
+    /**
+     * Build a table from the placements of every color.
+     *
+     * @param bitBoard board the placements lie on
+     * @param generator placements of a color, at most one per distinct set of cells
+     */
+    private PlacementTable(BitBoard bitBoard, Function<Color, List<Placement>> generator) {
+        Color[] colors = Color.values();
+
+        column = bitBoard.getColumn();
+        cells = bitBoard.getRow() * column;
+        placements = new Placement[colors.length][];
+        masks = new long[colors.length][];
+        firstWords = new int[colors.length][];
+        words = new long[colors.length][];
+        weights = new int[colors.length][];
+        offsets = new int[colors.length][];
+
+        List<List<Placement>> lists = new ArrayList<>();
+        int widest = 1;
+        for (Color color : colors) {
+            List<Placement> list = generator.apply(color);
+            for (Placement placement : list) {
+                int[] covered = cellsOf(placement);
+                widest = Math.max(widest, last(covered) / Long.SIZE - first(covered) / Long.SIZE + 1);
+            }
+            lists.add(list);
+        }
+
+        span = bitBoard.isCompact() ? 0 : widest;
+        for (Color color : colors) {
+            store(color, new ArrayList<>(lists.get(color.ordinal())), placement -> 1);
+        }
+    }
+
+    /**
+     * Placements of every variation of a color at every origin inside a flat board.
+     */
+    private static List<Placement> planar(BitBoard bitBoard, Color color) {
+        List<Placement> list = new ArrayList<>();
+        for (Piece piece : Variations.of(color)) {
+            for (int x = 0; x < bitBoard.getRow(); x++) {
+                for (int y = 0; y < bitBoard.getColumn(); y++) {
+                    if (bitBoard.cellsOf(piece, x, y) != null) {
+                        list.add(new Placement(piece, x, y, bitBoard.isCompact() ? bitBoard.maskOf(piece, x, y) : 0L));
+                    }
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Create a copy sharing the per-color arrays of the given table.
+     */
+    private PlacementTable(PlacementTable base) {
+        column = base.column;
+        cells = base.cells;
+        span = base.span;
+        placements = base.placements.clone();
+        masks = base.masks.clone();
+        firstWords = base.firstWords.clone();
+        words = base.words.clone();
+        weights = base.weights.clone();
+        offsets = base.offsets.clone();
+    }
+
+    private void store(Color color, List<Placement> list, ToIntFunction<Placement> weight) {
+        // Group by lowest covered cell, see placementsFrom(Color, int)
+        list.sort(Comparator.comparingInt(placement -> first(cellsOf(placement))));
+
+        Placement[] array = list.toArray(new Placement[0]);
+        long[] maskArray = new long[array.length];
+        int[] firstArray = new int[span > 0 ? array.length : 0];
+        long[] wordArray = new long[array.length * span];
+        int[] weightArray = new int[array.length];
+        int[] offsetArray = new int[cells + 1];
+        for (int i = 0; i < array.length; i++) {
+            int[] covered = cellsOf(array[i]);
+            maskArray[i] = array[i].getMask();
+            if (span > 0) {
+                firstArray[i] = first(covered) / Long.SIZE;
+                for (int cell : covered) {
+                    wordArray[i * span + cell / Long.SIZE - firstArray[i]] |= 1L << cell;
+                }
+            }
+            weightArray[i] = weight.applyAsInt(array[i]);
+            offsetArray[first(covered) + 1]++;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            offsetArray[cell + 1] += offsetArray[cell];
+        }
+        placements[color.ordinal()] = array;
+        masks[color.ordinal()] = maskArray;
+        firstWords[color.ordinal()] = firstArray;
+        words[color.ordinal()] = wordArray;
+        weights[color.ordinal()] = weightArray;
+        offsets[color.ordinal()] = offsetArray;
+    }
+
+    private int[] cellsOf(Placement placement) {
+        Piece piece = placement.getPiece();
+        int[] covered = new int[piece.size()];
+        for (int i = 0; i < covered.length; i++) {
+            covered[i] = (placement.getX() + piece.getX(i)) * column + placement.getY() + piece.getY(i);
+        }
+        return covered;
+    }
+
+    private static int first(int[] cells) {
+        return Arrays.stream(cells).min().orElseThrow();
+    }
+
+    private static int last(int[] cells) {
+        return Arrays.stream(cells).max().orElseThrow();
+    }
+
+    /**
+     * Derive a table in which one color only keeps some of its placements.
+     *
+     * <p>Each kept placement gets a weight: the number of solutions of the unrestricted
+     * table that a solution using it stands for. Counting solvers multiply by these
+     * weights, which are 1 in an unrestricted table.</p>
+     *
+     * @param color color to restrict
+     * @param keep placements of the color to keep
+     * @param weight weight of a kept placement
+     * @return restricted table sharing all other colors with this table
+     */
+    PlacementTable restrict(Color color, Predicate<Placement> keep, ToIntFunction<Placement> weight) {
+        List<Placement> list = new ArrayList<>();
+        for (Placement placement : placements[color.ordinal()]) {
+            if (keep.test(placement)) {
+                list.add(placement);
+            }
+        }
+
+        PlacementTable restricted = new PlacementTable(this);
+        restricted.store(color, list, weight);
+        return restricted;
+    }
+
+    /**
+     * Get the shared placement table of the standard 5x11 board.
+     *
+     * @return placement table
+     */
+    public static PlacementTable standard() {
+        return Holder.STANDARD;
+    }
+
+    /**
+     * Get the placement table of a board with the dimensions and shape of the given
+     * bitboard. The occupancy of the bitboard does not matter. Tables of boards other than
+     * the standard one are shared only while they are among the {@value Cache#CAPACITY}
+     * most recently used.
+     *
+     * @param geometry bitboard providing the dimensions and shape
+     * @return placement table, built on first use
+     */
+    public static PlacementTable of(BitBoard geometry) {
+        Geometry key = new Geometry(geometry);
+        if (key.equals(Holder.STANDARD_GEOMETRY)) {
+            return Holder.STANDARD;
+        }
+        return TABLES.get(key, k -> new PlacementTable(geometry));
+    }
+
+    /**
+     * Get the placement table of the 3D pyramid mode. The placements lie on the board of
+     * {@link Pyramid#newBoard()}; each one is a piece in board coordinates (see
+     * {@link Pyramid#placements(Color)}) placed at origin (0, 0). Like the tables of flat
+     * boards, only the most recently used pyramids are shared.
+     *
+     * @param pyramid the pyramid
+     * @return placement table, built on first use
+     */
+    public static PlacementTable of(Pyramid pyramid) {
+        return PYRAMIDS.get(pyramid.getLayers(), layers -> {
+            BitBoard bitBoard = pyramid.newBoard().getBitBoard();
+            return new PlacementTable(bitBoard, color -> {
+                List<Placement> list = new ArrayList<>();
+                for (Piece piece : pyramid.placements(color)) {
+                    list.add(new Placement(piece, 0, 0, bitBoard.isCompact() ? bitBoard.maskOf(piece, 0, 0) : 0L));
+                }
+                return list;
+            });
+        });
+    }
+
+    /**
+     * Check whether the placements have single word cell masks, see {@link #masks(Color)}.
+     *
+     * @return true if the board has at most 64 cells
+     */
+    public boolean isCompact() {
+        return span == 0;
+    }
+
+    /**
+     * Get all legal placements of a piece color.
+     *
+     * @param color piece color
+     * @return unmodifiable list of placements
+     */
+    public List<Placement> getPlacements(Color color) {
+        return List.of(placements[color.ordinal()]);
+    }
+
+    /**
+     * Get the number of legal placements of a piece color.
+     *
+     * @param color piece color
+     * @return placement count
+     */
+    public int size(Color color) {
+        return placements[color.ordinal()].length;
+    }
+
+    /**
+     * Direct access to the placements of a color for the solvers' inner loops.
+     * The returned array is shared and must not be modified.
+     */
+    Placement[] placements(Color color) {
+        return placements[color.ordinal()];
+    }
+
+    /**
+     * Direct access to the cell masks of a color, parallel to {@link #placements(Color)}.
+     * All masks are 0 on boards that are not compact, see {@link #words(Color)}.
+     * The returned array is shared and must not be modified.
+     */
+    long[] masks(Color color) {
+        return masks[color.ordinal()];
+    }
+
+    /**
+     * Number of words per placement in {@link #words(Color)}, 0 on compact boards.
+     */
+    int span() {
+        return span;
+    }
+
+    /**
+     * Index of the first board word each placement of a color covers, parallel to
+     * {@link #placements(Color)}. Empty on compact boards.
+     * The returned array is shared and must not be modified.
+     */
+    int[] firstWords(Color color) {
+        return firstWords[color.ordinal()];
+    }
+
+    /**
+     * Cells of the placements of a color on boards that are not compact: placement
+     * {@code i} covers {@code words[i * span() + k]} of board word {@code firstWords[i] + k}.
+     * The returned array is shared and must not be modified.
+     */
+    long[] words(Color color) {
+        return words[color.ordinal()];
+    }
+
+    /**
+     * Check whether a placement on a board that is not compact covers only empty cells.
+     * The placement's cells are {@code words[offset .. offset + span)} starting at board word
+     * {@code first}; the occupancy must be padded with {@code span - 1} empty words.
+     */
+    static boolean fits(long[] occupied, int first, long[] words, int offset, int span) {
+        for (int k = 0; k < span; k++) {
+            if ((occupied[first + k] & words[offset + k]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cells covered by placement {@code index} of a color, on boards of any size.
+     *
+     * @return new array of the bit indices of the cells
+     */
+    int[] cells(Color color, int index) {
+        return cellsOf(placements[color.ordinal()][index]);
+    }
+
+    /**
+     * Solution weights of the placements of a color, parallel to {@link #placements(Color)}.
+     * The returned array is shared and must not be modified.
+     */
+    int[] weights(Color color) {
+        return weights[color.ordinal()];
+    }
+
+    /**
+     * Find the placement of a color covering exactly the given cells.
+     *
+     * @return the placement, or null if the table has none
+     * @throws IllegalStateException if the board does not fit in a single long
+     */
+    Placement find(Color color, long mask) {
+        int index = indexOf(color, mask);
+        return index >= 0 ? placements[color.ordinal()][index] : null;
+    }
+
+    /**
+     * Find the index in {@link #placements(Color)} of the placement of a color covering
+     * exactly the given cells.
+     *
+     * @return the index, or -1 if the table has no such placement
+     * @throws IllegalStateException if the board does not fit in a single long
+     */
+    int indexOf(Color color, long mask) {
+        if (span > 0) {
+            throw new IllegalStateException("Placements of a wide board have no single-long mask");
+        }
+        int cell = Long.numberOfTrailingZeros(mask);
+        if (cell >= cells) {
+            // Empty, or only cells off the board
+            return -1;
+        }
+        long[] colorMasks = masks[color.ordinal()];
+        for (int i = placementsFrom(color, cell); i < placementsFrom(color, cell + 1); i++) {
+            if (colorMasks[i] == mask) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the first placement of a color whose lowest covered cell is {@code cell}.
+     * The placements with that lowest cell are those in {@code [placementsFrom(color, cell),
+     * placementsFrom(color, cell + 1))} of {@link #placements(Color)}.
+     */
+    int placementsFrom(Color color, int cell) {
+        return offsets[color.ordinal()][cell];
+    }
+
+    /**
+     * Lazily built on first use; class initialization makes this thread-safe.
+     */
+    private static final class Holder {
+        static final PlacementTable STANDARD = new PlacementTable(new BitBoard());
+        static final Geometry STANDARD_GEOMETRY = new Geometry(new BitBoard());
+    }
+
+    /**
+     * Shared tables of the most recently used boards, evicting the least recently used.
+     */
+    private static final class Cache<K> extends LinkedHashMap<K, PlacementTable> {
+        private static final long serialVersionUID = 1L;
+        static final int CAPACITY = 16;
+
+        Cache() {
+            super(CAPACITY, 0.75f, true);
+        }
+
+        synchronized PlacementTable get(K key, Function<K, PlacementTable> builder) {
+            return computeIfAbsent(key, builder);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, PlacementTable> eldest) {
+            return size() > CAPACITY;
+        }
+    }
+
+    /**
+     * Dimensions and shape of a board, the key of the shared tables.
+     */
+    private static final class Geometry {
+        final int row;
+        final int column;
+        final long[] cells;
+
+        Geometry(BitBoard bitBoard) {
+            this.row = bitBoard.getRow();
+            this.column = bitBoard.getColumn();
+            this.cells = bitBoard.getFullWords();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Geometry other
+                    && row == other.row && column == other.column && Arrays.equals(cells, other.cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * row + column) + Arrays.hashCode(cells);
+        }
+    }
+}
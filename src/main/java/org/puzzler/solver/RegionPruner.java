@@ -0,0 +1,284 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+
+import java.util.Arrays;
+
+/**
+ * Detects dead boards by looking at the connected regions of empty cells.
+ *
+ * <p>After a piece has been placed every region of empty cells has to be filled by some
+ * of the remaining pieces, so the size of each region must be a sum of remaining piece
+ * sizes. A region of one or two cells while the smallest remaining piece has three cells
+ * is the most common example of a board that can never be completed.</p>
+ *
+ * <p>The check is incremental: only the regions next to the piece that was just placed
+ * can have changed, so only those are flood filled. The flood fill itself works on the
+ * occupancy mask with shifts, which makes it allocation free; the only state is the
+ * pruning counter.</p>
+ *
+ * <p>Boards of more than 64 cells are handled by the multi-word variants of the methods,
+ * which shift across word boundaries and keep their intermediate masks in scratch arrays
+ * owned by the pruner. A pruner is therefore not thread-safe on such boards.</p>
+ */
+public class RegionPruner {
+    private final int column;
+    private final long full;
+    private final long notFirstColumn;
+    private final long notLastColumn;
+    private final long[] fullWords;
+    private final long[] notFirstWords;
+    private final long[] notLastWords;
+    private final long[] empty;
+    private final long[] pending;
+    private final long[] region;
+    private final long[] grown;
+    private final long[] shifted;
+    private long pruned;
+
+    /**
+     * Create a pruner for the standard 5x11 board.
+     */
+    public RegionPruner() {
+        this(new BitBoard());
+    }
+
+    /**
+     * Create a pruner for a board with the dimensions of the given bitboard.
+     *
+     * @param geometry bitboard providing the board dimensions
+     */
+    public RegionPruner(BitBoard geometry) {
+        this.column = geometry.getColumn();
+        this.fullWords = geometry.getFullWords();
+
+        int words = fullWords.length;
+        notFirstWords = fullWords.clone();
+        notLastWords = fullWords.clone();
+        for (int x = 0; x < geometry.getRow(); x++) {
+            int first = geometry.index(x, 0);
+            int last = geometry.index(x, column - 1);
+            notFirstWords[first >>> 6] &= ~(1L << first);
+            notLastWords[last >>> 6] &= ~(1L << last);
+        }
+        this.full = fullWords[0];
+        this.notFirstColumn = notFirstWords[0];
+        this.notLastColumn = notLastWords[0];
+
+        this.empty = new long[words];
+        this.pending = new long[words];
+        this.region = new long[words];
+        this.grown = new long[words];
+        this.shifted = new long[words];
+    }
+
+    /**
+     * Compute the bitset of all sums that can be formed from a subset of the given sizes.
+     * Bit {@code n} of the result is set if some subset adds up to {@code n} cells.
+     *
+     * @param sizes piece sizes in cells
+     * @param from first index (inclusive) of the sizes to use
+     * @return bitset of reachable sums
+     */
+    public static long reachableSums(int[] sizes, int from) {
+        long sums = 1L;
+        for (int i = from; i < sizes.length; i++) {
+            sums |= sums << sizes[i];
+        }
+        return sums;
+    }
+
+    /**
+     * Compute the bitset of all sums that can be formed from a subset of the selected
+     * sizes, for totals beyond 63 cells. Bit {@code n} of word {@code n / 64} of the result
+     * is set if some subset adds up to {@code n} cells; larger sums are dropped.
+     *
+     * @param sizes piece sizes in cells
+     * @param selected bit {@code i} set if size {@code i} may be used
+     * @param sums receives the bitset of reachable sums
+     */
+    public static void reachableSums(int[] sizes, int selected, long[] sums) {
+        Arrays.fill(sums, 0L);
+        sums[0] = 1L;
+        for (int rest = selected; rest != 0; rest &= rest - 1) {
+            int size = sizes[Integer.numberOfTrailingZeros(rest)];
+            for (int i = sums.length - 1; i >= 0; i--) {
+                sums[i] |= shiftedWord(sums, i, size);
+            }
+        }
+    }
+
+    /**
+     * Get the cells orthogonally adjacent to the given cells.
+     *
+     * @param mask cell mask
+     * @return mask of the neighbouring cells (may include cells of the mask itself)
+     */
+    public long neighbours(long mask) {
+        return (((mask & notLastColumn) << 1)
+                | ((mask & notFirstColumn) >>> 1)
+                | (mask << column)
+                | (mask >>> column)) & full;
+    }
+
+    /**
+     * Flood fill the region of empty cells containing the seed.
+     *
+     * @param seed cell mask to start from (must be empty)
+     * @param empty mask of the empty cells
+     * @return mask of the connected region
+     */
+    public long region(long seed, long empty) {
+        long region = seed;
+        while (true) {
+            long grown = (region | neighbours(region)) & empty;
+            if (grown == region) {
+                return region;
+            }
+            region = grown;
+        }
+    }
+
+    /**
+     * Check whether every empty region next to a newly placed piece can still be filled.
+     *
+     * @param occupied occupancy mask including the newly placed piece
+     * @param placed cell mask of the newly placed piece
+     * @param sums bitset of sums reachable with the remaining pieces (see {@link #reachableSums(int[], int)})
+     * @return false if the board is dead and the node can be pruned
+     */
+    public boolean isViable(long occupied, long placed, long sums) {
+        long empty = full & ~occupied;
+        long pending = neighbours(placed) & empty;
+
+        while (pending != 0) {
+            long region = region(pending & -pending, empty);
+            if ((sums >>> Long.bitCount(region) & 1L) == 0) {
+                pruned++;
+                return false;
+            }
+            pending &= ~region;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether every empty region next to a newly placed piece can still be filled,
+     * on a board of any size.
+     *
+     * @param occupied occupancy words including the newly placed piece (may be padded)
+     * @param placed cell words of the newly placed piece (may be padded)
+     * @param sums bitset of sums reachable with the remaining pieces (see
+     *             {@link #reachableSums(int[], int, long[])})
+     * @return false if the board is dead and the node can be pruned
+     */
+    public boolean isViable(long[] occupied, long[] placed, long[] sums) {
+        for (int i = 0; i < fullWords.length; i++) {
+            empty[i] = fullWords[i] & ~occupied[i];
+        }
+        neighbours(placed, pending);
+        and(pending, empty);
+
+        for (int seed = first(pending); seed >= 0; seed = first(pending)) {
+            // Flood fill the region containing the seed
+            Arrays.fill(region, 0L);
+            region[seed >>> 6] = 1L << seed;
+            int size = 1;
+            while (true) {
+                neighbours(region, grown);
+                int grownSize = 0;
+                for (int i = 0; i < grown.length; i++) {
+                    grown[i] = (grown[i] | region[i]) & empty[i];
+                    grownSize += Long.bitCount(grown[i]);
+                }
+                if (grownSize == size) {
+                    break;
+                }
+                System.arraycopy(grown, 0, region, 0, region.length);
+                size = grownSize;
+            }
+
+            if (size >>> 6 >= sums.length || (sums[size >>> 6] >>> size & 1L) == 0) {
+                pruned++;
+                return false;
+            }
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] &= ~region[i];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Multi-word variant of {@link #neighbours(long)}.
+     */
+    private void neighbours(long[] mask, long[] into) {
+        Arrays.fill(into, 0L);
+        for (int i = 0; i < shifted.length; i++) {
+            shifted[i] = mask[i] & notLastWords[i];
+        }
+        or(into, shifted, 1);
+        for (int i = 0; i < shifted.length; i++) {
+            shifted[i] = mask[i] & notFirstWords[i];
+        }
+        or(into, shifted, -1);
+        or(into, mask, column);
+        or(into, mask, -column);
+        and(into, fullWords);
+    }
+
+    /**
+     * OR the mask shifted by the given number of cells (towards higher cells if positive).
+     */
+    private static void or(long[] into, long[] mask, int shift) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] |= shiftedWord(mask, i, shift);
+        }
+    }
+
+    /**
+     * Word {@code i} of the multi-word mask shifted by the given number of cells.
+     */
+    private static long shiftedWord(long[] mask, int i, int shift) {
+        int words = Math.floorDiv(shift, Long.SIZE);
+        int bits = Math.floorMod(shift, Long.SIZE);
+        int from = i - words;
+        long low = from >= 0 && from < mask.length ? mask[from] : 0L;
+        if (bits == 0) {
+            return low;
+        }
+        long high = from - 1 >= 0 && from - 1 < mask.length ? mask[from - 1] : 0L;
+        return low << bits | high >>> (Long.SIZE - bits);
+    }
+
+    private static void and(long[] into, long[] mask) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] &= mask[i];
+        }
+    }
+
+    private static int first(long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            if (mask[i] != 0) {
+                return i * Long.SIZE + Long.numberOfTrailingZeros(mask[i]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the number of nodes pruned since creation or the last {@link #reset()}.
+     *
+     * @return pruned node count
+     */
+    public long getPruned() {
+        return pruned;
+    }
+
+    /**
+     * Reset the pruned node counter.
+     */
+    public void reset() {
+        pruned = 0;
+    }
+}
@@ -0,0 +1,317 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Base of the solvers searching the placements of the {@link PlacementTable} depth first on
+ * occupancy masks, i.e. {@link Backtracking} and {@link CellFirstSolver}.
+ *
+ * <p>It holds what their searches share: the per-call state of the pieces and the table,
+ * the region pruning, the symmetry breaking of compact boards and the multi-word
+ * occupancy of boards of more than 64 cells. A solver only implements how a node of
+ * either search chooses and tries its candidate placements.</p>
+ */
+abstract class SearchSolver implements Solver {
+    final SearchStats stats;
+    final boolean pruning;
+    final RegionPruner pruner;
+    final Symmetry.Mode symmetry;
+    long pruned;
+
+    /**
+     * @param pruning whether dead empty regions should be pruned
+     * @param symmetry how to use the symmetry of the starting board, see {@link Symmetry}
+     * @param stats statistics to record the searches in
+     */
+    SearchSolver(boolean pruning, Symmetry.Mode symmetry, SearchStats stats) {
+        this.stats = stats;
+        this.pruning = pruning;
+        this.pruner = pruning ? new RegionPruner() : null;
+        this.symmetry = symmetry;
+    }
+
+    /**
+     * Begin a search on a board of at most 64 cells.
+     */
+    abstract CompactState compact(BitBoard board, List<Piece> pieces);
+
+    /**
+     * Begin a search on a board of more than 64 cells.
+     */
+    abstract WideState wide(BitBoard board, List<Piece> pieces);
+
+    @Override
+    public void solveAll(Board board, List<Piece> pieces, SolutionSink sink) {
+        search(board.getBitBoard(), pieces, sink, true);
+    }
+
+    @Override
+    public long countSolutions(Board board, List<Piece> pieces) {
+        BitBoard bitBoard = board.getBitBoard();
+        if (!bitBoard.isCompact()) {
+            WideState search = wide(bitBoard, pieces);
+            long solutions = search.count(search.all, 0);
+            search.recorder.finish();
+            return solutions;
+        }
+        CompactState search = compact(bitBoard, pieces);
+        long solutions = search.count(bitBoard.getOccupied(), search.all, 0);
+        search.recorder.finish();
+        return solutions;
+    }
+
+    /**
+     * Enumerate the solutions of a board given only its occupancy.
+     *
+     * @param board bitboard with the occupied cells, which is not modified
+     * @param pieces pieces to place
+     * @param sink receiver of the solutions; returning false stops the enumeration
+     * @param unrestricted true to pass the solutions of the unrestricted problem, false to
+     *                     pass those of the problem whose symmetry was broken
+     */
+    void search(BitBoard board, List<Piece> pieces, SolutionSink sink, boolean unrestricted) {
+        if (!board.isCompact()) {
+            WideState search = wide(board, pieces);
+            search.search(search.all, 0, new Placement[pieces.size()], sink);
+            search.recorder.finish();
+            return;
+        }
+        CompactState search = compact(board, pieces);
+        search.search(board.getOccupied(), search.all, 0, new Placement[pieces.size()],
+                unrestricted ? search.wrap(sink) : sink);
+        search.recorder.finish();
+    }
+
+    @Override
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Get the number of nodes rejected by region pruning since this solver was created.
+     *
+     * @return pruned node count, 0 if pruning is disabled
+     */
+    public long getPrunedNodes() {
+        return pruned;
+    }
+
+    /**
+     * Per-call search state: the pieces to place, tracked as a bitmask over the indices of
+     * the piece list, and the statistics of the call.
+     */
+    abstract class State {
+        final Color[] colors;
+        final int[] sizes;
+        final int all;
+        final SearchStats.Recorder recorder;
+
+        State(List<Piece> pieces, SearchStats.Recorder recorder) {
+            if (pieces.size() >= Integer.SIZE) {
+                throw new IllegalArgumentException("Too many pieces: " + pieces.size());
+            }
+            colors = new Color[pieces.size()];
+            sizes = new int[pieces.size()];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = pieces.get(i).getColor();
+                sizes[i] = pieces.get(i).size();
+            }
+            all = (1 << colors.length) - 1;
+            this.recorder = recorder;
+        }
+
+        State(State root, SearchStats.Recorder recorder) {
+            colors = root.colors;
+            sizes = root.sizes;
+            all = root.all;
+            this.recorder = recorder;
+        }
+
+        /**
+         * Record the candidate placements of one piece examined at a node.
+         */
+        void expand(int candidates, int overlaps) {
+            recorder.tried += candidates;
+            recorder.rejectedByOverlap += overlaps;
+        }
+
+        /**
+         * Record a candidate placement rejected by region pruning.
+         */
+        void prune() {
+            recorder.pruned++;
+            pruned++;
+        }
+    }
+
+    /**
+     * Per-call search state on boards of at most 64 cells.
+     *
+     * <p>If the starting board is mirror symmetric, one piece is restricted to one
+     * placement per group of mirror images, see {@link Symmetry}, and {@link #wrap} restores
+     * the solutions of the unrestricted problem. The state can be continued by a state of
+     * another solver, e.g. on another thread, which keeps the table and symmetry handling
+     * and uses its own pruner.</p>
+     */
+    abstract class CompactState extends State {
+        final PlacementTable table;
+        final BitBoard geometry;
+        final boolean standard;
+        final RegionPruner pruner;
+        final Symmetry group;
+        final Color broken;
+        final boolean expanded;
+
+        CompactState(BitBoard board, List<Piece> pieces, SearchStats.Recorder recorder) {
+            super(pieces, recorder);
+
+            // The pruner of the standard board is kept, others are cheap to create
+            PlacementTable base = PlacementTable.of(board);
+            geometry = board;
+            standard = base == PlacementTable.standard();
+            pruner = !pruning ? null : standard ? SearchSolver.this.pruner : new RegionPruner(geometry);
+            expanded = symmetry == Symmetry.Mode.EXPANDED;
+
+            // Restrict one piece to break the symmetry of the starting board, if any
+            Symmetry detected = symmetry != Symmetry.Mode.NONE && colors.length > 0
+                    ? Symmetry.of(board, base) : null;
+            if (detected != null && detected.order() > 1) {
+                this.group = detected;
+                this.broken = detected.choose(colors);
+                this.table = detected.breakSymmetry(base, broken);
+            } else {
+                this.group = null;
+                this.broken = null;
+                this.table = base;
+            }
+        }
+
+        CompactState(CompactState root, SearchStats.Recorder recorder) {
+            super(root, recorder);
+            table = root.table;
+            geometry = root.geometry;
+            standard = root.standard;
+            group = root.group;
+            broken = root.broken;
+            expanded = root.expanded;
+            pruner = !pruning ? null : standard ? SearchSolver.this.pruner : new RegionPruner(geometry);
+        }
+
+        /**
+         * Wrap the sink so it receives the solutions of the unrestricted problem.
+         */
+        SolutionSink wrap(SolutionSink sink) {
+            return group == null ? sink : group.filter(sink, broken, expanded);
+        }
+
+        /**
+         * Bitset of region sizes the given remaining pieces can fill.
+         */
+        long sums(int remaining) {
+            long sums = 1L;
+            for (int rest = remaining; rest != 0; rest &= rest - 1) {
+                sums |= sums << sizes[Integer.numberOfTrailingZeros(rest)];
+            }
+            return sums;
+        }
+
+        /**
+         * Check a candidate placement that does not overlap, recording it if it is pruned.
+         */
+        boolean isViable(long occupied, long mask, long sums) {
+            if (pruner != null && !pruner.isViable(occupied | mask, mask, sums)) {
+                prune();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return false if the sink requested to stop the search
+         */
+        abstract boolean search(long occupied, int remaining, int depth, Placement[] chosen, SolutionSink sink);
+
+        abstract long count(long occupied, int remaining, int depth);
+    }
+
+    /**
+     * Per-call search state on boards of more than 64 cells.
+     *
+     * <p>The occupancy of every depth is kept in its own row of words, so a placement
+     * is undone by going back one row. Each row is padded with {@link PlacementTable#span()}
+     * empty words, so placements near the end of the board can be checked without bounds
+     * tests. The symmetry of the starting board is not used.</p>
+     */
+    abstract class WideState extends State {
+        final PlacementTable table;
+        final RegionPruner pruner;
+        final int span;
+        final long[][] occupied;
+        final long[] placed;
+        final long[][] sums;
+
+        WideState(BitBoard board, List<Piece> pieces) {
+            super(pieces, stats.begin());
+
+            table = PlacementTable.of(board);
+            pruner = pruning ? new RegionPruner(board) : null;
+            span = table.span();
+
+            long[] start = board.getOccupiedWords();
+            occupied = new long[colors.length + 1][start.length + span];
+            System.arraycopy(start, 0, occupied[0], 0, start.length);
+            placed = new long[start.length + span];
+            sums = new long[colors.length][board.getCells() / Long.SIZE + 1];
+        }
+
+        /**
+         * Check a candidate placement that does not overlap, recording it if it is pruned.
+         * The placement has already been written to the next occupancy row.
+         */
+        boolean isViable(int depth, int first, long[] words, int offset) {
+            if (pruner == null) {
+                return true;
+            }
+            System.arraycopy(words, offset, placed, first, span);
+            boolean viable = pruner.isViable(occupied[depth + 1], placed, sums[depth]);
+            Arrays.fill(placed, first, first + span, 0L);
+            if (!viable) {
+                prune();
+            }
+            return viable;
+        }
+
+        /**
+         * Write the occupancy after placing a piece to the next row.
+         */
+        void place(int depth, int first, long[] words, int offset) {
+            long[] next = occupied[depth + 1];
+            System.arraycopy(occupied[depth], 0, next, 0, next.length);
+            for (int k = 0; k < span; k++) {
+                next[first + k] |= words[offset + k];
+            }
+        }
+
+        /**
+         * Prepare the sums of the pieces left after placing a piece at a depth.
+         */
+        void prepare(int left, int depth) {
+            if (pruner != null) {
+                RegionPruner.reachableSums(sizes, left, sums[depth]);
+            }
+        }
+
+        /**
+         * @return false if the sink requested to stop the search
+         */
+        abstract boolean search(int remaining, int depth, Placement[] chosen, SolutionSink sink);
+
+        abstract long count(int remaining, int depth);
+    }
+}
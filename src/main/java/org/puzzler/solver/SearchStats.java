@@ -0,0 +1,251 @@
+package org.puzzler.solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search statistics collected by a {@link Solver}.
+ *
+ * <p>The counters accumulate over all searches of a solver until {@link #reset()} is
+ * called. To keep the overhead low enough to leave them enabled, a search never updates
+ * these shared counters directly: every search (or every task of a parallel search) counts
+ * into its own thread-confined {@link Recorder} using plain {@code long} fields, which is
+ * merged into the striped {@link LongAdder}s once the search or task ends.</p>
+ *
+ * <p>The counters are:
+ * <ul>
+ *   <li>nodes: search nodes visited</li>
+ *   <li>placements tried: candidate placements examined</li>
+ *   <li>rejected by overlap: candidate placements overlapping occupied cells</li>
+ *   <li>pruned: placements rejected by the {@link RegionPruner}</li>
+ *   <li>transposition hits and misses: lookups of the {@link TranspositionTable} that did
+ *       and did not find the state to be dead</li>
+ *   <li>backtracks per depth: placements undone at each search depth</li>
+ *   <li>time to first solution of the most recent search, in nanoseconds</li>
+ * </ul>
+ * </p>
+ */
+public final class SearchStats {
+    /**
+     * Maximum search depth tracked by the backtrack histogram; deeper levels count at the last depth.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder placementsTried = new LongAdder();
+    private final LongAdder rejectedByOverlap = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+    private final LongAdder transpositionHits = new LongAdder();
+    private final LongAdder transpositionMisses = new LongAdder();
+    private final LongAdder solutions = new LongAdder();
+    private final LongAdder elapsedNanos = new LongAdder();
+    private final AtomicLongArray backtracks = new AtomicLongArray(MAX_DEPTH);
+    private final AtomicLong timeToFirstSolution = new AtomicLong(-1);
+
+    /**
+     * Start a new search.
+     *
+     * @return recorder for the calling thread, timed from now
+     */
+    Recorder begin() {
+        searches.increment();
+        timeToFirstSolution.set(-1);
+        return new Recorder(this, System.nanoTime());
+    }
+
+    /**
+     * Create another recorder for a search that has already begun, e.g. for a parallel task.
+     *
+     * @param search recorder returned by {@link #begin()}
+     * @return recorder sharing the start time of the search
+     */
+    Recorder fork(Recorder search) {
+        return new Recorder(this, search.start);
+    }
+
+    private void merge(Recorder recorder) {
+        nodes.add(recorder.nodes);
+        placementsTried.add(recorder.tried);
+        rejectedByOverlap.add(recorder.rejectedByOverlap);
+        pruned.add(recorder.pruned);
+        transpositionHits.add(recorder.transpositionHits);
+        transpositionMisses.add(recorder.transpositionMisses);
+        solutions.add(recorder.solutions);
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            if (recorder.backtracks[depth] != 0) {
+                backtracks.addAndGet(depth, recorder.backtracks[depth]);
+            }
+        }
+    }
+
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public long getPlacementsTried() {
+        return placementsTried.sum();
+    }
+
+    public long getRejectedByOverlap() {
+        return rejectedByOverlap.sum();
+    }
+
+    public long getPruned() {
+        return pruned.sum();
+    }
+
+    public long getTranspositionHits() {
+        return transpositionHits.sum();
+    }
+
+    public long getTranspositionMisses() {
+        return transpositionMisses.sum();
+    }
+
+    public long getSolutions() {
+        return solutions.sum();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos.sum();
+    }
+
+    /**
+     * Get the number of placements undone at a search depth.
+     *
+     * @param depth search depth (0..MAX_DEPTH-1)
+     * @return backtrack count
+     */
+    public long getBacktracks(int depth) {
+        return backtracks.get(depth);
+    }
+
+    /**
+     * Get the time from the start of the most recent search until its first solution.
+     *
+     * @return nanoseconds, or -1 if the most recent search found no solution
+     */
+    public long getTimeToFirstSolutionNanos() {
+        return timeToFirstSolution.get();
+    }
+
+    /**
+     * Reset all counters.
+     */
+    public void reset() {
+        searches.reset();
+        nodes.reset();
+        placementsTried.reset();
+        rejectedByOverlap.reset();
+        pruned.reset();
+        transpositionHits.reset();
+        transpositionMisses.reset();
+        solutions.reset();
+        elapsedNanos.reset();
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            backtracks.set(depth, 0);
+        }
+        timeToFirstSolution.set(-1);
+    }
+
+    /**
+     * Export the counters as a JSON object. The backtrack histogram is written up to the
+     * deepest depth with a non-zero count.
+     *
+     * @return JSON representation of the statistics
+     */
+    public String toJson() {
+        int depths = MAX_DEPTH;
+        while (depths > 0 && backtracks.get(depths - 1) == 0) {
+            depths--;
+        }
+
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"searches\":").append(getSearches())
+                .append(",\"nodes\":").append(getNodes())
+                .append(",\"placementsTried\":").append(getPlacementsTried())
+                .append(",\"rejectedByOverlap\":").append(getRejectedByOverlap())
+                .append(",\"pruned\":").append(getPruned())
+                .append(",\"transpositionHits\":").append(getTranspositionHits())
+                .append(",\"transpositionMisses\":").append(getTranspositionMisses())
+                .append(",\"solutions\":").append(getSolutions())
+                .append(",\"elapsedNanos\":").append(getElapsedNanos())
+                .append(",\"timeToFirstSolutionNanos\":").append(getTimeToFirstSolutionNanos())
+                .append(",\"backtracksPerDepth\":[");
+        for (int depth = 0; depth < depths; depth++) {
+            if (depth > 0) {
+                json.append(',');
+            }
+            json.append(backtracks.get(depth));
+        }
+        return json.append("]}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /**
+     * Thread-confined counters of one search or search task.
+     *
+     * <p>Solvers increment the public fields directly and call {@link #finish()} (or
+     * {@link #merge()} for parallel tasks) when done.</p>
+     */
+    static final class Recorder {
+        private final SearchStats stats;
+        private final long start;
+
+        long nodes;
+        long tried;
+        long rejectedByOverlap;
+        long pruned;
+        long transpositionHits;
+        long transpositionMisses;
+        long solutions;
+        final long[] backtracks = new long[MAX_DEPTH];
+
+        private Recorder(SearchStats stats, long start) {
+            this.stats = stats;
+            this.start = start;
+        }
+
+        /**
+         * Record a found solution, remembering the time of the first one.
+         */
+        void solution() {
+            solutions++;
+            if (stats.timeToFirstSolution.get() < 0) {
+                stats.timeToFirstSolution.compareAndSet(-1, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Record a placement being undone at the given depth.
+         */
+        void backtrack(int depth) {
+            backtracks[Math.min(depth, MAX_DEPTH - 1)]++;
+        }
+
+        /**
+         * Merge the counters of a parallel task into the shared statistics.
+         */
+        void merge() {
+            stats.merge(this);
+        }
+
+        /**
+         * Merge the counters into the shared statistics and record the elapsed time of the search.
+         */
+        void finish() {
+            stats.merge(this);
+            stats.elapsedNanos.add(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.puzzler.solver;
+
+import org.puzzler.level.Level;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interactive solving session on one level.
+ *
+ * <p>The session sets up the level once and then follows the moves of a player, who
+ * places and removes the remaining pieces one at a time. It answers whether the current
+ * board can still be completed and suggests a next move. The solver is kept for the whole
+ * session, but its searches share nothing: every search starts afresh, and solvers with a
+ * {@link TranspositionTable} clear it at the start of each search. What is reused between
+ * moves is the last solution.</p>
+ *
+ * <p>The session remembers the last solution it found and reuses it while it stays
+ * valid: placing a piece where that solution has it keeps the solution, and removing a
+ * player's piece adds that piece back to it. A board that cannot be completed stays so
+ * when more pieces are placed. Only other moves require a new search,
+ * which on the levels of the game takes well below a millisecond to a few milliseconds
+ * with the default {@link CellFirstSolver}.</p>
+ *
+ * <p>A session is not thread-safe.</p>
+ */
+public class Session {
+    private final PlacementTable table = PlacementTable.standard();
+    private final Board board = new Board();
+    private final Solver solver;
+    // Pieces the player may place and their current placement, if any
+    private final Map<Color, Piece> pieces = new EnumMap<>(Color.class);
+    private final Map<Color, Placement> placed = new EnumMap<>(Color.class);
+
+    // Solution of the pieces not yet placed, or null if the board needs a new search
+    private Map<Color, Placement> solution;
+    private boolean solvable;
+    private boolean searched;
+
+    /**
+     * Start a session with the default solver.
+     *
+     * @param level level to play
+     */
+    public Session(Level level) {
+        this(level, new CellFirstSolver());
+    }
+
+    /**
+     * Start a session.
+     *
+     * @param level level to play
+     * @param solver solver used for all checks and hints of this session
+     */
+    public Session(Level level, Solver solver) {
+        this.solver = solver;
+
+        List<Piece> fixed = level.initBoard(board);
+        for (Color color : Color.values()) {
+            pieces.put(color, new Piece(color, Shapes.of(color)));
+        }
+        for (Piece piece : fixed) {
+            pieces.remove(piece.getColor());
+        }
+    }
+
+    /**
+     * Get the board of this session. It must only be changed through the session.
+     *
+     * @return board with the fixed and the placed pieces
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Get the colors of the pieces that still have to be placed.
+     *
+     * @return colors in ordinal order
+     */
+    public List<Color> getRemaining() {
+        List<Color> remaining = new ArrayList<>();
+        for (Color color : pieces.keySet()) {
+            if (!placed.containsKey(color)) {
+                remaining.add(color);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Check whether every piece has been placed.
+     *
+     * @return true if the board is full
+     */
+    public boolean isComplete() {
+        return placed.size() == pieces.size();
+    }
+
+    /**
+     * Place a piece of the player.
+     *
+     * @param piece piece variation to place (its coordinates are relative)
+     * @param x origin x (row)
+     * @param y origin y (column)
+     * @return false if the piece is fixed or already placed, or the placement does not fit
+     */
+    public boolean place(Piece piece, int x, int y) {
+        Color color = piece.getColor();
+        if (!pieces.containsKey(color) || placed.containsKey(color)
+                || !board.checkPlacementOfPiece(piece, x, y)) {
+            return false;
+        }
+
+        Placement placement = table.find(color, board.getBitBoard().maskOf(piece, x, y));
+        if (placement == null) {
+            // Not a variation of the color's shape
+            return false;
+        }
+        board.placeRemainingBlock(placement.getPiece(), placement.getX(), placement.getY());
+        placed.put(color, placement);
+
+        // An unsolvable board stays unsolvable, a solution only stays valid if it agrees
+        if (solution != null && solution.get(color) == placement) {
+            solution.remove(color);
+        } else if (solution != null) {
+            solution = null;
+            searched = false;
+        }
+        return true;
+    }
+
+    /**
+     * Remove a piece the player has placed.
+     *
+     * @param color color of the piece
+     * @return false if the piece is not placed or is one of the level's fixed pieces
+     */
+    public boolean remove(Color color) {
+        Placement placement = placed.remove(color);
+        if (placement == null) {
+            return false;
+        }
+        board.removeBlock(placement.getPiece(), placement.getX(), placement.getY());
+
+        // Putting the piece back completes the board the same way as before
+        if (solution != null) {
+            solution.put(color, placement);
+        } else {
+            searched = false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the current board can still be completed with the remaining pieces.
+     *
+     * @return true if a solution exists
+     */
+    public boolean isSolvable() {
+        if (!searched) {
+            search();
+        }
+        return solvable;
+    }
+
+    /**
+     * Suggest a next move: the placement, in some solution of the current board, of the
+     * piece covering the first empty cell.
+     *
+     * @return suggested placement, or null if the board is complete or cannot be completed
+     */
+    public Placement nextMove() {
+        if (!isSolvable() || solution.isEmpty()) {
+            return null;
+        }
+
+        long first = Long.lowestOneBit(~board.getBitBoard().getOccupied());
+        for (Placement placement : solution.values()) {
+            if ((placement.getMask() & first) != 0) {
+                return placement;
+            }
+        }
+        return solution.values().iterator().next();
+    }
+
+    private void search() {
+        List<Piece> remaining = new ArrayList<>();
+        for (Color color : getRemaining()) {
+            remaining.add(pieces.get(color));
+        }
+
+        Solution[] found = new Solution[1];
+        solver.solveAll(board, remaining, candidate -> {
+            found[0] = candidate;
+            return false;
+        });
+
+        searched = true;
+        solvable = found[0] != null;
+        if (solvable) {
+            solution = new EnumMap<>(Color.class);
+            for (Placement placement : found[0].getPlacements()) {
+                solution.put(placement.getColor(), placement);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.Board;
+
+import java.util.List;
+
+/**
+ * A complete solution found by a {@link Solver}.
+ *
+ * <p>A solution is the immutable list of placements of the pieces the solver had to
+ * place. It does not include the pieces that were already on the board.</p>
+ */
+public final class Solution {
+    private final List<Placement> placements;
+
+    /**
+     * Create a solution from the given placements. The array is copied.
+     *
+     * @param placements placements of the solved pieces
+     */
+    public Solution(Placement[] placements) {
+        this.placements = List.of(placements);
+    }
+
+    /**
+     * Get the placements of the solved pieces.
+     *
+     * @return unmodifiable list of placements
+     */
+    public List<Placement> getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Get the union of the cell masks of all placements.
+     *
+     * @return cell mask covered by this solution
+     */
+    public long getMask() {
+        long mask = 0L;
+        for (Placement placement : placements) {
+            mask |= placement.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * Place all pieces of this solution on the given board.
+     *
+     * @param board board to place the pieces on
+     */
+    public void apply(Board board) {
+        for (Placement placement : placements) {
+            board.placeRemainingBlock(placement.getPiece(), placement.getX(), placement.getY());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.puzzler.solver;
+
+import org.puzzler.level.Level;
+import org.puzzler.level.LevelLoader;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Binary database of precomputed solutions, read through a memory-mapped file.
+ *
+ * <p>The file is an open-addressed hash table of fixed-width records. Each record is keyed
+ * by the occupancy mask of a starting board and the set of pieces still to place, and holds
+ * one solution. A lookup hashes the key, probes the slots directly in the mapped buffer and
+ * only decodes the record it hits, so serving a solution does not run a {@link Solver}.</p>
+ *
+ * <pre>
+ *   header:  int magic, int version, int row, int column, int slots, int records, long reserved
+ *   record:  long occupied, int remaining, int count, long placement[12]
+ * </pre>
+ *
+ * <p>{@code remaining} has bit {@code color.ordinal()} set for every piece to place; it is
+ * 0 for an empty slot. Each placement is the cell mask of a piece with its color ordinal
+ * in the top byte. The database only covers the standard board of {@link PlacementTable#standard()}.</p>
+ */
+public final class SolutionDatabase {
+    private static final int MAGIC = 0x49515344;
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final Color[] COLORS = Color.values();
+    private static final int MAX_PIECES = COLORS.length;
+    private static final int RECORD = 16 + 8 * MAX_PIECES;
+    private static final int COLOR_SHIFT = 56;
+
+    private final PlacementTable table = PlacementTable.standard();
+    private final ByteBuffer buffer;
+    private final int slots;
+    private final int records;
+
+    private SolutionDatabase(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a solution database");
+        }
+        if (buffer.getInt(8) != 5 || buffer.getInt(12) != 11) {
+            throw new IllegalArgumentException("Unsupported board: " + buffer.getInt(8) + "x" + buffer.getInt(12));
+        }
+        int slots = buffer.getInt(16);
+        int records = buffer.getInt(20);
+        if (slots <= 0 || Integer.bitCount(slots) != 1 || HEADER + (long) slots * RECORD > buffer.capacity()) {
+            throw new IllegalArgumentException("Invalid slot count: " + slots);
+        }
+        if (records < 0 || records >= slots) {
+            throw new IllegalArgumentException("Invalid record count: " + records + " of " + slots + " slots");
+        }
+        this.buffer = buffer;
+        this.slots = slots;
+        this.records = records;
+    }
+
+    /**
+     * Map a solution database file.
+     *
+     * @param path database file
+     * @return database reading from the mapped file
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the file is not a solution database or its header
+     *                                  does not fit the file
+     */
+    public static SolutionDatabase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SolutionDatabase(buffer);
+        }
+    }
+
+    /**
+     * Solve every level of {@link LevelLoader} and write the solutions to a database file.
+     * Levels without a solution are not stored.
+     *
+     * @param path database file to create or replace
+     * @param solver solver to find the solutions with
+     * @return number of stored solutions
+     * @throws IOException if the file cannot be written
+     */
+    public static int write(Path path, Solver solver) throws IOException {
+        int[] levels = LevelLoader.levelNumbers();
+        int slots = Integer.highestOneBit(Math.max(1, 2 * levels.length - 1)) << 1;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + slots * RECORD);
+        int records = 0;
+        for (int number : levels) {
+            Level level = LevelLoader.load(number);
+            Board board = new Board();
+            List<Piece> pieces = level.remainingPieces(level.initBoard(board));
+
+            Solution[] found = new Solution[1];
+            solver.solveAll(board, pieces, solution -> {
+                found[0] = solution;
+                return false;
+            });
+            if (found[0] == null) {
+                continue;
+            }
+
+            long occupied = board.getBitBoard().getOccupied();
+            int remaining = remaining(pieces);
+            int offset = probe(buffer, slots, occupied, remaining);
+            if (buffer.getInt(offset + 8) != 0) {
+                // Another level with the same starting board
+                continue;
+            }
+
+            List<Placement> placements = found[0].getPlacements();
+            buffer.putLong(offset, occupied);
+            buffer.putInt(offset + 8, remaining);
+            buffer.putInt(offset + 12, placements.size());
+            for (int i = 0; i < placements.size(); i++) {
+                Placement placement = placements.get(i);
+                buffer.putLong(offset + 16 + 8 * i, (long) placement.getColor().ordinal() << COLOR_SHIFT | placement.getMask());
+            }
+            records++;
+        }
+
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, 5).putInt(12, 11)
+                .putInt(16, slots).putInt(20, records);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Get the number of stored solutions.
+     *
+     * @return record count
+     */
+    public int size() {
+        return records;
+    }
+
+    /**
+     * Look up the solution of a starting board.
+     *
+     * @param board starting board
+     * @param pieces pieces to place
+     * @return stored solution, or null if the database has none
+     * @throws IOException if the stored record does not decode to a solution
+     */
+    public Solution lookup(Board board, List<Piece> pieces) throws IOException {
+        if (pieces.isEmpty() || pieces.size() > MAX_PIECES) {
+            return null;
+        }
+        return lookup(board.getBitBoard().getOccupied(), remaining(pieces));
+    }
+
+    /**
+     * Look up the solution of a starting board.
+     *
+     * @param occupied occupancy mask of the starting board
+     * @param remaining bit {@code color.ordinal()} set for every piece to place
+     * @return stored solution, or null if the database has none
+     * @throws IOException if the stored record does not decode to a solution
+     */
+    public Solution lookup(long occupied, int remaining) throws IOException {
+        int offset = probe(buffer, slots, occupied, remaining);
+        if (offset < 0 || buffer.getInt(offset + 8) == 0) {
+            return null;
+        }
+
+        // Every piece to place exactly once, each at a placement of the table
+        int count = buffer.getInt(offset + 12);
+        if (count != Integer.bitCount(remaining)) {
+            throw new IOException("Corrupt record at offset " + offset + ": " + count + " placements");
+        }
+        Placement[] placements = new Placement[count];
+        int colors = 0;
+        for (int i = 0; i < count; i++) {
+            long entry = buffer.getLong(offset + 16 + 8 * i);
+            int ordinal = (int) (entry >>> COLOR_SHIFT);
+            Placement placement = ordinal < COLORS.length && (remaining & ~colors & 1 << ordinal) != 0
+                    ? table.find(COLORS[ordinal], entry & ((1L << COLOR_SHIFT) - 1))
+                    : null;
+            if (placement == null) {
+                throw new IOException("Corrupt record at offset " + offset + ": placement " + i);
+            }
+            colors |= 1 << ordinal;
+            placements[i] = placement;
+        }
+        return new Solution(placements);
+    }
+
+    /**
+     * Find the slot holding a key, or the empty slot where it would be stored.
+     *
+     * @return buffer offset of the slot, or -1 if the key is not stored and no slot is empty
+     */
+    private static int probe(ByteBuffer buffer, int slots, long occupied, int remaining) {
+        int slot = (int) hash(occupied, remaining) & (slots - 1);
+        for (int i = 0; i < slots; i++) {
+            int offset = HEADER + slot * RECORD;
+            int stored = buffer.getInt(offset + 8);
+            if (stored == 0 || (stored == remaining && buffer.getLong(offset) == occupied)) {
+                return offset;
+            }
+            slot = (slot + 1) & (slots - 1);
+        }
+        return -1;
+    }
+
+    private static long hash(long occupied, int remaining) {
+        long h = occupied * 0x9E3779B97F4A7C15L + remaining;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int remaining(List<Piece> pieces) {
+        int remaining = 0;
+        for (Piece piece : pieces) {
+            remaining |= 1 << piece.getColor().ordinal();
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,307 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Enumerates every solution of the empty standard board into a {@link SolutionFile}, on
+ * several threads and resumable after the process was killed.
+ *
+ * <p>The search is the one of {@link CellFirstSolver}. Its first {@value #SPLIT} levels
+ * are expanded up front into a frontier of {@link CellFirstSolver.Subproblem}s, which is
+ * the same on every run, and the workers solve the subproblems independently, each with a
+ * solver of its own. The symmetry of the empty board is broken as described in
+ * {@link Symmetry}, which saves three quarters of the search, and every solution found is
+ * written together with its mirror images.</p>
+ *
+ * <p>A finished subproblem appends its solutions to the solution file as one compressed
+ * block. At most once per checkpoint interval, and when the run ends, the set of finished
+ * subproblems and the length of the solution file are written to a checkpoint file,
+ * replacing it atomically. A run with an existing checkpoint cuts the solution file back
+ * to the recorded length, dropping blocks written after the checkpoint, and solves only
+ * the subproblems that were not finished yet. Without a checkpoint, a run only starts over
+ * on an empty or missing solution file, unless it is told to overwrite the file.</p>
+ *
+ * <pre>
+ *   checkpoint:  int magic, int version, int tasks, long length, long solutions,
+ *                int words, long done[words]
+ * </pre>
+ */
+public class SolutionEnumerator {
+    private static final int MAGIC = 0x49514345;
+    private static final int VERSION = 1;
+    // Depth of the frontier, which gives about 33000 subproblems of a few milliseconds each
+    private static final int SPLIT = 3;
+    private static final Color[] COLORS = Color.values();
+
+    private final int threads;
+    private final long interval;
+
+    /**
+     * Progress of a run, reported at every checkpoint.
+     */
+    public static final class Progress {
+        private final int done;
+        private final int tasks;
+        private final long solutions;
+
+        Progress(int done, int tasks, long solutions) {
+            this.done = done;
+            this.tasks = tasks;
+            this.solutions = solutions;
+        }
+
+        /**
+         * Get the number of finished subproblems.
+         *
+         * @return finished subproblems, including those of earlier runs
+         */
+        public int getDone() {
+            return done;
+        }
+
+        /**
+         * Get the number of subproblems of the whole enumeration.
+         *
+         * @return subproblem count
+         */
+        public int getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Get the number of solutions written so far.
+         *
+         * @return solutions in the solution file up to the checkpoint
+         */
+        public long getSolutions() {
+            return solutions;
+        }
+
+        public String toJson() {
+            return "{\"done\":" + done + ",\"tasks\":" + tasks + ",\"solutions\":" + solutions + "}";
+        }
+    }
+
+    /**
+     * Create an enumerator using all available processors and a checkpoint every minute.
+     */
+    public SolutionEnumerator() {
+        this(Runtime.getRuntime().availableProcessors(), Duration.ofMinutes(1));
+    }
+
+    /**
+     * Create an enumerator.
+     *
+     * @param threads number of worker threads
+     * @param checkpointInterval least time between two checkpoints
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public SolutionEnumerator(int threads, Duration checkpointInterval) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid configuration: threads=" + threads);
+        }
+        this.threads = threads;
+        this.interval = checkpointInterval.toNanos();
+    }
+
+    /**
+     * Enumerate the solutions, resuming from the checkpoint if it exists.
+     *
+     * @param solutions solution file to append to
+     * @param checkpoint checkpoint file
+     * @param progress receiver of the progress at every checkpoint
+     * @return total number of solutions in the solution file
+     * @throws IOException if a file cannot be read or written, does not match the checkpoint,
+     *                     or the solution file is not empty and there is no checkpoint
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public long run(Path solutions, Path checkpoint, Consumer<Progress> progress) throws IOException, InterruptedException {
+        return run(solutions, checkpoint, false, progress);
+    }
+
+    /**
+     * Enumerate the solutions.
+     *
+     * @param solutions solution file to append to
+     * @param checkpoint checkpoint file
+     * @param overwrite true to discard the solution file and the checkpoint and start over,
+     *                  false to resume from the checkpoint if it exists
+     * @param progress receiver of the progress at every checkpoint
+     * @return total number of solutions in the solution file
+     * @throws IOException if a file cannot be read or written, does not match the checkpoint,
+     *                     or the solution file is not empty and there is neither a checkpoint
+     *                     nor an overwrite
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public long run(Path solutions, Path checkpoint, boolean overwrite, Consumer<Progress> progress)
+            throws IOException, InterruptedException {
+        List<Piece> pieces = new ArrayList<>();
+        for (Color color : COLORS) {
+            pieces.add(new Piece(color, Shapes.of(color)));
+        }
+        List<CellFirstSolver.Subproblem> tasks = new CellFirstSolver(true, Symmetry.Mode.EXPANDED)
+                .frontier(new Board(), pieces, SPLIT);
+
+        if (overwrite) {
+            Files.deleteIfExists(checkpoint);
+        } else if (!Files.exists(checkpoint) && Files.exists(solutions) && Files.size(solutions) > 0) {
+            throw new IOException("Solution file exists without a checkpoint: " + solutions);
+        }
+
+        try (FileChannel channel = overwrite
+                ? FileChannel.open(solutions, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(solutions, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            Run run = new Run(channel, checkpoint, tasks.size(), progress);
+            if (Files.exists(checkpoint)) {
+                run.resume();
+                // Drop the blocks written after the checkpoint
+                channel.truncate(run.length);
+            }
+            channel.position(run.length);
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (!run.done.get(i)) {
+                        int number = i;
+                        CellFirstSolver.Subproblem task = tasks.get(number);
+                        futures.add(executor.submit(() -> {
+                            SolutionFile.Block block = new SolutionFile.Block();
+                            new CellFirstSolver(true, Symmetry.Mode.EXPANDED).solveAll(task, solution -> {
+                                block.add(solution);
+                                return true;
+                            });
+                            run.finish(number, block);
+                        }));
+                    }
+                }
+
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof UncheckedIOException io) {
+                            throw io.getCause();
+                        }
+                        throw new IllegalStateException("Enumeration task failed", e.getCause());
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            run.checkpoint();
+            return run.solutions;
+        }
+    }
+
+    /**
+     * State of one run: the finished subproblems, the solution file and the checkpoint.
+     * The methods that touch the files are synchronized, so blocks are never interleaved.
+     */
+    private final class Run {
+        final FileChannel channel;
+        final Path checkpoint;
+        final int tasks;
+        final Consumer<Progress> progress;
+        final BitSet done = new BitSet();
+        long length;
+        long solutions;
+        long written;
+        long last = System.nanoTime();
+
+        Run(FileChannel channel, Path checkpoint, int tasks, Consumer<Progress> progress) {
+            this.channel = channel;
+            this.checkpoint = checkpoint;
+            this.tasks = tasks;
+            this.progress = progress;
+        }
+
+        void resume() throws IOException {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(checkpoint))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a checkpoint: " + checkpoint);
+                }
+                if (in.readInt() != tasks) {
+                    throw new IOException("Checkpoint does not match the search: " + checkpoint);
+                }
+                length = in.readLong();
+                solutions = in.readLong();
+                long[] words = new long[in.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = in.readLong();
+                }
+                done.or(BitSet.valueOf(words));
+            }
+            if (channel.size() < length) {
+                throw new IOException("Solution file is shorter than its checkpoint: " + channel.size() + " < " + length);
+            }
+            written = solutions;
+        }
+
+        synchronized void finish(int task, SolutionFile.Block block) {
+            try {
+                ByteBuffer bytes = ByteBuffer.wrap(block.finish());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                done.set(task);
+                written += block.size();
+
+                if (System.nanoTime() - last >= interval) {
+                    checkpoint();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized void checkpoint() throws IOException {
+            channel.force(false);
+            length = channel.position();
+            solutions = written;
+
+            Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+                long[] words = done.toLongArray();
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(tasks);
+                out.writeLong(length);
+                out.writeLong(solutions);
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            last = System.nanoTime();
+            progress.accept(new Progress(done.cardinality(), tasks, solutions));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only compressed file of complete solutions of the empty standard board, as written
+ * by {@link SolutionEnumerator}.
+ *
+ * <p>The file is a sequence of gzip members, so blocks of solutions can be appended at any
+ * time and a file cut after a complete block stays readable. Uncompressed, every solution
+ * is a record of one unsigned short per color, in color ordinal order, holding the index of
+ * the color's placement in {@link PlacementTable#getPlacements(Color)} of the standard
+ * table. Solutions are numbered by their position in the file, starting at 0.</p>
+ *
+ * <p>Since every stored solution covers the whole board, a level is solved by keeping the
+ * solutions that agree with its pre-placed pieces, see {@link #lookup(Path, List)}.</p>
+ */
+public final class SolutionFile {
+    private static final Color[] COLORS = Color.values();
+    private static final int RECORD = 2 * COLORS.length;
+
+    private SolutionFile() {
+    }
+
+    /**
+     * Receiver of the solutions read from a file.
+     */
+    @FunctionalInterface
+    public interface Reader {
+        /**
+         * Accept the next solution.
+         *
+         * @param id position of the solution in the file
+         * @param masks cell mask of every color, indexed by color ordinal; the array is reused
+         *              for the next solution
+         * @return true to continue reading, false to stop
+         */
+        boolean accept(int id, long[] masks);
+    }
+
+    /**
+     * Compresses solutions into a block that can be appended to a file.
+     */
+    static final class Block {
+        private final PlacementTable table = PlacementTable.standard();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final GZIPOutputStream out;
+        private final byte[] record = new byte[RECORD];
+        private int size;
+
+        Block() {
+            try {
+                this.out = new GZIPOutputStream(bytes, 1 << 16);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void add(Solution solution) {
+            for (Placement placement : solution.getPlacements()) {
+                int i = 2 * placement.getColor().ordinal();
+                int index = table.indexOf(placement.getColor(), placement.getMask());
+                record[i] = (byte) (index >>> 8);
+                record[i + 1] = (byte) index;
+            }
+            try {
+                out.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            size++;
+        }
+
+        /**
+         * Get the number of solutions in the block.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Finish the block.
+         *
+         * @return compressed bytes of a complete gzip member, empty if the block has no solutions
+         */
+        byte[] finish() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return size == 0 ? new byte[0] : bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Read the solutions of a file in order.
+     *
+     * @param path solution file
+     * @param reader receiver of the solutions
+     * @return number of solutions read
+     * @throws IOException if the file cannot be read or is truncated within a block
+     */
+    public static int read(Path path, Reader reader) throws IOException {
+        if (Files.size(path) == 0) {
+            return 0;
+        }
+
+        PlacementTable table = PlacementTable.standard();
+        long[][] masks = new long[COLORS.length][];
+        for (Color color : COLORS) {
+            masks[color.ordinal()] = table.masks(color);
+        }
+
+        long[] solution = new long[COLORS.length];
+        byte[] record = new byte[RECORD];
+        int id = 0;
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(file, 1 << 16), 1 << 16))) {
+            while (true) {
+                // Only a clean end between two records ends the file, anything else is truncated
+                int first = in.read();
+                if (first < 0) {
+                    return id;
+                }
+                record[0] = (byte) first;
+                in.readFully(record, 1, RECORD - 1);
+                for (int color = 0; color < COLORS.length; color++) {
+                    solution[color] = masks[color][(record[2 * color] & 0xFF) << 8 | (record[2 * color + 1] & 0xFF)];
+                }
+                if (!reader.accept(id++, solution)) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Count the solutions of a file.
+     *
+     * @param path solution file
+     * @return number of stored solutions
+     * @throws IOException if the file cannot be read
+     */
+    public static int count(Path path) throws IOException {
+        return read(path, (id, masks) -> true);
+    }
+
+    /**
+     * Solve a level by filtering the stored solutions of the empty board: a stored solution
+     * solves the level if it places every pre-placed piece exactly where the level does.
+     *
+     * @param path solution file
+     * @param placed pre-placed pieces in board coordinates, as returned by
+     *               {@link org.puzzler.level.Level#initBoard(Board)}
+     * @return every solution for the remaining pieces, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static List<Solution> lookup(Path path, List<Piece> placed) throws IOException {
+        PlacementTable table = PlacementTable.standard();
+        BitBoard board = new BitBoard();
+        long[] fixed = new long[COLORS.length];
+        for (Piece piece : placed) {
+            long mask = board.maskOf(piece, 0, 0);
+            if (mask == 0) {
+                // Not on the board, so no stored solution places it there
+                return new ArrayList<>();
+            }
+            fixed[piece.getColor().ordinal()] = mask;
+        }
+
+        List<Solution> solutions = new ArrayList<>();
+        read(path, (id, masks) -> {
+            for (int color = 0; color < COLORS.length; color++) {
+                if (fixed[color] != 0 && fixed[color] != masks[color]) {
+                    return true;
+                }
+            }
+
+            Placement[] placements = new Placement[COLORS.length - placed.size()];
+            int i = 0;
+            for (Color color : COLORS) {
+                if (fixed[color.ordinal()] == 0) {
+                    placements[i++] = table.find(color, masks[color.ordinal()]);
+                }
+            }
+            solutions.add(new Solution(placements));
+            return true;
+        });
+        return solutions;
+    }
+}
@@ -0,0 +1,293 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inverted index over the solutions of a {@link SolutionFile}, read through a
+ * memory-mapped file.
+ *
+ * <p>For every placement of every color, the index holds the sorted IDs of the stored
+ * solutions that use it. A level is answered by intersecting the lists of its pre-placed
+ * pieces: the intersection starts from the shortest list and finds each candidate in the
+ * others by galloping search, so a lookup touches only a few thousand entries and does
+ * not run a {@link Solver}. The solutions themselves are stored as fixed-width records
+ * next to the lists, so the matching ones are decoded directly.</p>
+ *
+ * <pre>
+ *   header:     int magic, int version, int solutions, int lists, long reserved, long reserved
+ *   directory:  int start[lists + 1]          (first entry of each list, in entries)
+ *   records:    short placement[12] per solution
+ *   entries:    int id[]                      (the lists, one after the other)
+ * </pre>
+ *
+ * <p>List {@code k} belongs to placement {@code k - base(color)} of a color in
+ * {@link PlacementTable#getPlacements(Color)} of the standard table, where the colors'
+ * placements are numbered one after the other in color ordinal order. Records use the same
+ * placement indices as the solution file.</p>
+ */
+public final class SolutionIndex {
+    private static final int MAGIC = 0x49515349;
+    private static final int VERSION = 1;
+    private static final int HEADER = 32;
+    private static final Color[] COLORS = Color.values();
+    private static final int RECORD = 2 * COLORS.length;
+
+    private final PlacementTable table = PlacementTable.standard();
+    private final ByteBuffer buffer;
+    private final int solutions;
+    private final int lists;
+    private final int[] bases;
+    private final int records;
+    private final int entries;
+
+    private SolutionIndex(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a solution index");
+        }
+        this.buffer = buffer;
+        this.solutions = buffer.getInt(8);
+        this.lists = buffer.getInt(12);
+        this.bases = bases(table);
+        if (lists != bases[COLORS.length]) {
+            throw new IllegalArgumentException("Index does not match the placement table");
+        }
+        this.records = HEADER + 4 * (lists + 1);
+        this.entries = records + RECORD * solutions;
+    }
+
+    /**
+     * Map a solution index file.
+     *
+     * @param path index file
+     * @return index reading from the mapped file
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the file is not a solution index
+     */
+    public static SolutionIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SolutionIndex(buffer);
+        }
+    }
+
+    /**
+     * Build the index of a solution file.
+     *
+     * @param solutionFile solutions to index, see {@link SolutionFile}
+     * @param path index file to create or replace
+     * @return number of indexed solutions
+     * @throws IOException if a file cannot be read or written
+     */
+    public static int write(Path solutionFile, Path path) throws IOException {
+        PlacementTable table = PlacementTable.standard();
+        int[] bases = bases(table);
+        int lists = bases[COLORS.length];
+
+        // First pass: the length of every list
+        int[] start = new int[lists + 1];
+        int solutions = SolutionFile.read(solutionFile, (id, masks) -> {
+            for (Color color : COLORS) {
+                start[bases[color.ordinal()] + table.indexOf(color, masks[color.ordinal()]) + 1]++;
+            }
+            return true;
+        });
+        for (int k = 0; k < lists; k++) {
+            start[k + 1] += start[k];
+        }
+
+        int records = HEADER + 4 * (lists + 1);
+        int entries = records + RECORD * solutions;
+        long size = entries + 4L * start[lists];
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many solutions for one index: " + solutions);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, solutions).putInt(12, lists);
+            for (int k = 0; k <= lists; k++) {
+                buffer.putInt(HEADER + 4 * k, start[k]);
+            }
+
+            // Second pass: the records, and every solution ID appended to its lists in order
+            int[] next = Arrays.copyOf(start, lists);
+            SolutionFile.read(solutionFile, (id, masks) -> {
+                for (Color color : COLORS) {
+                    int index = table.indexOf(color, masks[color.ordinal()]);
+                    int list = bases[color.ordinal()] + index;
+                    buffer.putShort(records + RECORD * id + 2 * color.ordinal(), (short) index);
+                    buffer.putInt(entries + 4 * next[list]++, id);
+                }
+                return true;
+            });
+            buffer.force();
+        }
+        return solutions;
+    }
+
+    /**
+     * Number the placements of all colors one after the other.
+     *
+     * @return first list of every color, by color ordinal, and the total list count
+     */
+    private static int[] bases(PlacementTable table) {
+        int[] bases = new int[COLORS.length + 1];
+        for (Color color : COLORS) {
+            bases[color.ordinal() + 1] = bases[color.ordinal()] + table.size(color);
+        }
+        return bases;
+    }
+
+    /**
+     * Get the number of indexed solutions.
+     *
+     * @return solution count
+     */
+    public int size() {
+        return solutions;
+    }
+
+    /**
+     * Find the solutions that place every given piece exactly where it is.
+     *
+     * @param placed pre-placed pieces in board coordinates, as returned by
+     *               {@link org.puzzler.level.Level#initBoard(org.puzzler.model.Board)}
+     * @return sorted IDs of the matching solutions
+     */
+    public int[] find(List<Piece> placed) {
+        if (placed.isEmpty()) {
+            int[] all = new int[solutions];
+            Arrays.setAll(all, id -> id);
+            return all;
+        }
+
+        BitBoard board = new BitBoard();
+        int[] from = new int[placed.size()];
+        int[] to = new int[placed.size()];
+        for (int i = 0; i < placed.size(); i++) {
+            Piece piece = placed.get(i);
+            long mask = board.maskOf(piece, 0, 0);
+            int index = mask != 0 ? table.indexOf(piece.getColor(), mask) : -1;
+            if (index < 0) {
+                return new int[0];
+            }
+            int list = bases[piece.getColor().ordinal()] + index;
+            from[i] = buffer.getInt(HEADER + 4 * list);
+            to[i] = buffer.getInt(HEADER + 4 * (list + 1));
+        }
+
+        // Walk the shortest list and look its IDs up in the others
+        int shortest = 0;
+        for (int i = 1; i < from.length; i++) {
+            if (to[i] - from[i] < to[shortest] - from[shortest]) {
+                shortest = i;
+            }
+        }
+
+        int[] found = new int[to[shortest] - from[shortest]];
+        int count = 0;
+        candidates:
+        for (int entry = from[shortest]; entry < to[shortest]; entry++) {
+            int id = buffer.getInt(entries + 4 * entry);
+            for (int i = 0; i < from.length; i++) {
+                if (i == shortest) {
+                    continue;
+                }
+                from[i] = gallop(from[i], to[i], id);
+                if (from[i] == to[i]) {
+                    break candidates;
+                }
+                if (buffer.getInt(entries + 4 * from[i]) != id) {
+                    continue candidates;
+                }
+            }
+            found[count++] = id;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Find the first entry in {@code [from, to)} that is not less than the ID, probing
+     * 1, 2, 4, ... entries ahead before a binary search.
+     *
+     * @return index of the entry, or {@code to} if every entry is less
+     */
+    private int gallop(int from, int to, int id) {
+        if (from == to) {
+            return to;
+        }
+        int low = from;
+        int step = 1;
+        while (low + step < to && buffer.getInt(entries + 4 * (low + step)) < id) {
+            low += step;
+            step <<= 1;
+        }
+        if (buffer.getInt(entries + 4 * low) >= id) {
+            return low;
+        }
+
+        int high = Math.min(low + step, to);
+        low++;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getInt(entries + 4 * middle) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the placements of the remaining pieces in a stored solution.
+     *
+     * @param id solution ID
+     * @param placed pre-placed pieces, whose colors are left out
+     * @return solution of the remaining pieces, in color ordinal order
+     */
+    public Solution solution(int id, List<Piece> placed) {
+        boolean[] skip = new boolean[COLORS.length];
+        for (Piece piece : placed) {
+            skip[piece.getColor().ordinal()] = true;
+        }
+
+        List<Placement> placements = new ArrayList<>(COLORS.length);
+        for (Color color : COLORS) {
+            if (!skip[color.ordinal()]) {
+                int index = Short.toUnsignedInt(buffer.getShort(records + RECORD * id + 2 * color.ordinal()));
+                placements.add(table.placements(color)[index]);
+            }
+        }
+        return new Solution(placements.toArray(new Placement[0]));
+    }
+
+    /**
+     * Solve a level from the index.
+     *
+     * @param placed pre-placed pieces in board coordinates, as returned by
+     *               {@link org.puzzler.level.Level#initBoard(org.puzzler.model.Board)}
+     * @return every solution for the remaining pieces, in ID order
+     */
+    public List<Solution> lookup(List<Piece> placed) {
+        int[] ids = find(placed);
+        List<Solution> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            found.add(solution(id, placed));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,18 @@
+package org.puzzler.solver;
+
+/**
+ * Callback receiving solutions as soon as a {@link Solver} finds them.
+ *
+ * <p>Solutions are streamed one at a time, so enumerating all solutions of a level does
+ * not require keeping the whole set in memory.</p>
+ */
+@FunctionalInterface
+public interface SolutionSink {
+    /**
+     * Accept a solution.
+     *
+     * @param solution the solution that was found
+     * @return true to continue the search, false to stop it
+     */
+    boolean accept(Solution solution);
+}
@@ -0,0 +1,211 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Board;
+import org.puzzler.model.Piece;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers whether a partially filled board can still be completed, without building
+ * a solution and without side effects.
+ *
+ * <p>The check works on an occupancy snapshot and runs cheap necessary conditions before
+ * falling back to a search:</p>
+ * <ol>
+ *   <li>area: the pieces must cover exactly the empty cells</li>
+ *   <li>regions: every connected empty region must be a sum of piece sizes (see
+ *       {@link RegionPruner})</li>
+ *   <li>placements: every piece needs a placement that fits, and every empty cell must be
+ *       covered by some fitting placement</li>
+ *   <li>colourings: for the checkerboard, row and column colourings of the board, the
+ *       numbers of dark cells the fitting placements of the pieces cover must be able to
+ *       add up to the number of empty dark cells</li>
+ *   <li>search: a first-solution search with a {@link CellFirstSolver}</li>
+ * </ol>
+ *
+ * <p>A check works on boards of one shape with at most 64 cells, the standard 5x11 board
+ * unless another geometry is given. The number of boards each step rejected is counted.
+ * A check is not thread-safe.</p>
+ */
+public class SolvabilityCheck {
+    private final PlacementTable table;
+    private final RegionPruner regions;
+    private final CellFirstSolver solver = new CellFirstSolver(true, Symmetry.Mode.REPRESENTATIVES);
+    private final BitBoard geometry;
+    // Dark cells of the checkerboard, row and column colourings
+    private final long[] colourings;
+
+    private long rejectedByArea;
+    private long rejectedByRegions;
+    private long rejectedByPlacements;
+    private long rejectedByColourings;
+    private long searches;
+
+    /**
+     * Create a check for the standard 5x11 board.
+     */
+    public SolvabilityCheck() {
+        this(new BitBoard());
+    }
+
+    /**
+     * Create a check for boards with the dimensions and shape of the given bitboard.
+     *
+     * @param board bitboard providing the dimensions and shape, its occupancy does not matter
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public SolvabilityCheck(BitBoard board) {
+        if (!board.isCompact()) {
+            throw new IllegalArgumentException("Board has more than " + Long.SIZE + " cells: "
+                    + board.getRow() + "x" + board.getColumn());
+        }
+        this.geometry = new BitBoard(board.getRow(), board.getColumn(), board.getFullWords());
+        this.table = PlacementTable.of(geometry);
+        this.regions = new RegionPruner(geometry);
+
+        long checkerboard = 0L;
+        long rows = 0L;
+        long columns = 0L;
+        for (int x = 0; x < geometry.getRow(); x++) {
+            for (int y = 0; y < geometry.getColumn(); y++) {
+                long cell = 1L << geometry.index(x, y);
+                checkerboard |= (x + y) % 2 == 0 ? cell : 0L;
+                rows |= x % 2 == 0 ? cell : 0L;
+                columns |= y % 2 == 0 ? cell : 0L;
+            }
+        }
+        this.colourings = new long[] {checkerboard, rows, columns};
+    }
+
+    /**
+     * Check whether the pieces can complete a board.
+     *
+     * @param board board to check, which is not modified
+     * @param pieces pieces to place
+     * @return true if a solution exists
+     * @throws IllegalArgumentException if the board does not have the shape of this check
+     */
+    public boolean isSolvable(Board board, List<Piece> pieces) {
+        BitBoard bitBoard = board.getBitBoard();
+        if (bitBoard.getRow() != geometry.getRow() || bitBoard.getColumn() != geometry.getColumn()
+                || !Arrays.equals(bitBoard.getFullWords(), geometry.getFullWords())) {
+            throw new IllegalArgumentException("Board does not match the " + geometry.getRow() + "x"
+                    + geometry.getColumn() + " board of the check: " + bitBoard.getRow() + "x" + bitBoard.getColumn());
+        }
+        return isSolvable(bitBoard.getOccupied(), pieces);
+    }
+
+    /**
+     * Check whether the pieces can complete a board with the shape of this check.
+     *
+     * @param occupied occupancy mask of the board
+     * @param pieces pieces to place
+     * @return true if a solution exists
+     */
+    public boolean isSolvable(long occupied, List<Piece> pieces) {
+        long empty = geometry.getFull() & ~occupied;
+
+        int[] sizes = new int[pieces.size()];
+        int area = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = pieces.get(i).size();
+            area += sizes[i];
+        }
+        if (area != Long.bitCount(empty)) {
+            rejectedByArea++;
+            return false;
+        }
+
+        long sums = RegionPruner.reachableSums(sizes, 0);
+        for (long rest = empty; rest != 0; ) {
+            long region = regions.region(rest & -rest, empty);
+            if ((sums >>> Long.bitCount(region) & 1L) == 0) {
+                rejectedByRegions++;
+                return false;
+            }
+            rest &= ~region;
+        }
+
+        // Bit n of reachable[c] is set if the pieces so far can cover n dark cells of colouring c
+        long[] reachable = new long[colourings.length];
+        Arrays.fill(reachable, 1L);
+        long covered = 0L;
+        for (Piece piece : pieces) {
+            long[] counts = new long[colourings.length];
+            boolean fits = false;
+            for (long mask : table.masks(piece.getColor())) {
+                if ((mask & occupied) == 0) {
+                    fits = true;
+                    covered |= mask;
+                    for (int c = 0; c < colourings.length; c++) {
+                        counts[c] |= 1L << Long.bitCount(mask & colourings[c]);
+                    }
+                }
+            }
+            if (!fits) {
+                rejectedByPlacements++;
+                return false;
+            }
+
+            for (int c = 0; c < colourings.length; c++) {
+                long next = 0L;
+                for (long rest = counts[c]; rest != 0; rest &= rest - 1) {
+                    next |= reachable[c] << Long.numberOfTrailingZeros(rest);
+                }
+                reachable[c] = next;
+            }
+        }
+        if (covered != empty) {
+            rejectedByPlacements++;
+            return false;
+        }
+
+        for (int c = 0; c < colourings.length; c++) {
+            if ((reachable[c] >>> Long.bitCount(empty & colourings[c]) & 1L) == 0) {
+                rejectedByColourings++;
+                return false;
+            }
+        }
+
+        searches++;
+        BitBoard snapshot = new BitBoard(geometry.getRow(), geometry.getColumn(), geometry.getFullWords());
+        snapshot.place(occupied);
+        return solver.hasSolution(snapshot, pieces);
+    }
+
+    public long getRejectedByArea() {
+        return rejectedByArea;
+    }
+
+    public long getRejectedByRegions() {
+        return rejectedByRegions;
+    }
+
+    public long getRejectedByPlacements() {
+        return rejectedByPlacements;
+    }
+
+    public long getRejectedByColourings() {
+        return rejectedByColourings;
+    }
+
+    /**
+     * Get the number of checks that passed all necessary conditions and needed a search.
+     *
+     * @return search count
+     */
+    public long getSearches() {
+        return searches;
+    }
+
+    /**
+     * Get the statistics of the fallback searches.
+     *
+     * @return search statistics
+     */
+    public SearchStats getStats() {
+        return solver.getStats();
+    }
+}
@@ -2,21 +2,70 @@ package org.puzzler.solver;
 
 import org.puzzler.model.Board;
 import org.puzzler.model.Piece;
+import org.puzzler.output.Output;
 import java.util.List;
 
 /**
  * Solver interface for puzzle solving strategies.
  *
  * Implementations should attempt to place all provided pieces onto the board
- * and return true if a complete placement was found, false otherwise.
+ * and return true if a complete placement was found, false otherwise. They can
+ * also enumerate every solution, either streamed to a {@link SolutionSink} or
+ * only counted, and report {@link SearchStats} about their searches.
  */
 public interface Solver {
     /**
      * Attempt to place all pieces on the given board.
      *
+     * <p>The default implementation takes the first solution of
+     * {@link #solveAll(Board, List, SolutionSink)}, writes it to the board and reports it to
+     * the {@link Output#sink() event sink}.</p>
+     *
      * @param board board to place pieces on
      * @param pieces list of pieces to place (order may affect the algorithm)
      * @return true if a full placement was found, false otherwise
      */
-    boolean solve(Board board, List<Piece> pieces);
+    default boolean solve(Board board, List<Piece> pieces) {
+        Solution[] found = new Solution[1];
+
+        solveAll(board, pieces, solution -> {
+            found[0] = solution;
+            return false;
+        });
+
+        if (found[0] == null) {
+            return false;
+        }
+
+        found[0].apply(board);
+        Output.sink().solved(board);
+        return true;
+    }
+
+    /**
+     * Enumerate the solutions for the given board and pieces, passing each one to the
+     * sink as soon as it is found. The board itself is not modified.
+     *
+     * @param board board with the pre-placed pieces
+     * @param pieces list of pieces to place
+     * @param sink receiver of the solutions; returning false stops the enumeration
+     */
+    void solveAll(Board board, List<Piece> pieces, SolutionSink sink);
+
+    /**
+     * Count all solutions for the given board and pieces without building
+     * {@link Solution} objects. The board itself is not modified.
+     *
+     * @param board board with the pre-placed pieces
+     * @param pieces list of pieces to place
+     * @return number of solutions
+     */
+    long countSolutions(Board board, List<Piece> pieces);
+
+    /**
+     * Get the statistics accumulated by all searches of this solver.
+     *
+     * @return search statistics
+     */
+    SearchStats getStats();
 }
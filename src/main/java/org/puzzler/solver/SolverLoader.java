@@ -0,0 +1,37 @@
+package org.puzzler.solver;
+
+/**
+ * Simple factory to load solver implementations by name.
+ */
+public class SolverLoader {
+    private static final String[] SOLVER_NAMES = {"backtracking", "backtracking-list", "dlx", "cellfirst", "parallel"};
+
+    public SolverLoader() {}
+
+    /**
+     * Get the names of all solvers that {@link #load(String)} supports.
+     *
+     * @return solver names
+     */
+    public static String[] solverNames() {
+        return SOLVER_NAMES.clone();
+    }
+
+    /**
+     * Load a {@link Solver} implementation for the specified name.
+     *
+     * @param name solver identifier (case-insensitive)
+     * @return Solver instance matching name
+     * @throws IllegalArgumentException if the solver name is unsupported
+     */
+    public static Solver load(String name) {
+        return switch (name.toLowerCase()) {
+            case "backtracking" -> new Backtracking();
+            case "backtracking-list" -> new Backtracking(true, Symmetry.Mode.EXPANDED, 0, PieceOrder.LIST);
+            case "dlx", "dancinglinks" -> new DancingLinksSolver();
+            case "cellfirst" -> new CellFirstSolver();
+            case "parallel" -> new ParallelSolver();
+            default -> throw new IllegalArgumentException("Unsupported solver: " + name);
+        };
+    }
+}
@@ -0,0 +1,228 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.BitBoard;
+import org.puzzler.model.Color;
+import org.puzzler.model.Variations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Symmetry group of a starting board and the means to break it.
+ *
+ * <p>A rectangular board is mapped onto itself by flipping its rows, flipping its columns
+ * and rotating it by 180 degrees. Every such transformation that also maps the occupied
+ * cells of the starting board onto themselves turns each solution into another solution,
+ * because every piece may be placed in all of its orientations. An empty board therefore
+ * has every solution four times, in all of its mirror images.</p>
+ *
+ * <p>The symmetry is broken by restricting one piece to the placements that are the
+ * smallest of their images ({@link #breakSymmetry(PlacementTable, Color)}). Every solution
+ * of the full problem is the image of a solution of the restricted one. To keep counts
+ * correct, each kept placement is weighted by the number of distinct images it has, and
+ * {@link #filter(SolutionSink, Color, boolean)} either reduces the restricted solutions to
+ * one representative per group of mirror images or expands them back to the full set.</p>
+ *
+ * <p>Quarter turns are not considered, since the standard board is not square.</p>
+ */
+public final class Symmetry {
+
+    /**
+     * How a solver uses the symmetry of the starting board.
+     */
+    public enum Mode {
+        /** Search the full problem. */
+        NONE,
+        /** Break the symmetry and report one representative per group of mirror images. */
+        REPRESENTATIVES,
+        /** Break the symmetry and expand every representative back to all of its images. */
+        EXPANDED
+    }
+
+    private final PlacementTable table;
+    // Cell permutations of the group elements; index 0 is the identity
+    private final int[][] permutations;
+
+    private Symmetry(PlacementTable table, int[][] permutations) {
+        this.table = table;
+        this.permutations = permutations;
+    }
+
+    /**
+     * Detect the symmetries of a starting board.
+     *
+     * @param board bitboard with the pre-placed pieces
+     * @param table unrestricted placement table of the board
+     * @return symmetry group of the board's occupancy
+     */
+    static Symmetry of(BitBoard board, PlacementTable table) {
+        int row = board.getRow();
+        int column = board.getColumn();
+
+        List<int[]> permutations = new ArrayList<>();
+        for (int transform = 0; transform < 4; transform++) {
+            int[] permutation = new int[row * column];
+            for (int x = 0; x < row; x++) {
+                for (int y = 0; y < column; y++) {
+                    int toX = (transform & 1) != 0 ? row - 1 - x : x;
+                    int toY = (transform & 2) != 0 ? column - 1 - y : y;
+                    permutation[board.index(x, y)] = board.index(toX, toY);
+                }
+            }
+
+            // The shape of the board has to be symmetric as well
+            if (transform == 0 || apply(permutation, board.getOccupied()) == board.getOccupied()
+                    && apply(permutation, board.getFull()) == board.getFull()) {
+                permutations.add(permutation);
+            }
+        }
+        return new Symmetry(table, permutations.toArray(new int[0][]));
+    }
+
+    private static long apply(int[] permutation, long mask) {
+        long image = 0L;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            image |= 1L << permutation[Long.numberOfTrailingZeros(rest)];
+        }
+        return image;
+    }
+
+    /**
+     * Get the number of symmetries, including the identity.
+     *
+     * @return group order (1, 2 or 4)
+     */
+    public int order() {
+        return permutations.length;
+    }
+
+    /**
+     * Map a cell mask with one of the symmetries.
+     *
+     * @param element group element (0..order-1, 0 is the identity)
+     * @param mask cell mask
+     * @return image of the mask
+     */
+    long transform(int element, long mask) {
+        return apply(permutations[element], mask);
+    }
+
+    /**
+     * Count the symmetries mapping a cell mask onto itself.
+     */
+    private int stabilizer(long mask) {
+        int size = 0;
+        for (int[] permutation : permutations) {
+            if (apply(permutation, mask) == mask) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private boolean isCanonical(long mask) {
+        for (int[] permutation : permutations) {
+            if (Long.compareUnsigned(apply(permutation, mask), mask) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Choose the piece whose placements are restricted. Pieces with more distinct
+     * orientations have fewer self-symmetric placements, which break the symmetry best.
+     *
+     * @param colors colors of the pieces to place
+     * @return color to restrict
+     */
+    Color choose(Color[] colors) {
+        Color best = colors[0];
+        for (Color color : colors) {
+            int byVariations = Integer.compare(Variations.count(color), Variations.count(best));
+            if (byVariations > 0 || (byVariations == 0 && table.size(color) > table.size(best))) {
+                best = color;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Restrict a color to the placements that are the smallest of their images.
+     *
+     * @param table table to restrict
+     * @param color color to restrict
+     * @return restricted table, weighted by the number of distinct images of each placement
+     */
+    PlacementTable breakSymmetry(PlacementTable table, Color color) {
+        return table.restrict(color,
+                placement -> isCanonical(placement.getMask()),
+                placement -> order() / stabilizer(placement.getMask()));
+    }
+
+    /**
+     * Wrap a sink so it receives the solutions of the unrestricted problem.
+     *
+     * <p>The restricted search may still find several images of the same solution when
+     * the restricted piece's placement is itself symmetric; only the one with the smallest
+     * key is kept. That representative is passed on as is or, if {@code expand} is set,
+     * together with all of its distinct images.</p>
+     *
+     * @param sink receiver of the solutions
+     * @param broken color whose placements were restricted
+     * @param expand whether to report every image instead of one representative
+     * @return sink for the solutions of the restricted search
+     */
+    SolutionSink filter(SolutionSink sink, Color broken, boolean expand) {
+        return solution -> {
+            long[] key = key(solution);
+            long brokenMask = key[broken.ordinal()];
+
+            for (int element = 1; element < order(); element++) {
+                if (transform(element, brokenMask) == brokenMask
+                        && Arrays.compareUnsigned(key(transform(element, solution)), key) < 0) {
+                    return true;
+                }
+            }
+
+            if (!expand) {
+                return sink.accept(solution);
+            }
+
+            List<long[]> emitted = new ArrayList<>(order());
+            for (int element = 0; element < order(); element++) {
+                Solution image = element == 0 ? solution : transform(element, solution);
+                long[] imageKey = key(image);
+                if (emitted.stream().noneMatch(other -> Arrays.equals(other, imageKey))) {
+                    emitted.add(imageKey);
+                    if (!sink.accept(image)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        };
+    }
+
+    private Solution transform(int element, Solution solution) {
+        List<Placement> placements = solution.getPlacements();
+        Placement[] image = new Placement[placements.size()];
+        for (int i = 0; i < image.length; i++) {
+            Placement placement = placements.get(i);
+            image[i] = table.find(placement.getColor(), transform(element, placement.getMask()));
+        }
+        return new Solution(image);
+    }
+
+    /**
+     * Cell mask of every color in the solution, indexed by color ordinal.
+     */
+    private static long[] key(Solution solution) {
+        long[] key = new long[Color.values().length];
+        for (Placement placement : solution.getPlacements()) {
+            key[placement.getColor().ordinal()] = placement.getMask();
+        }
+        return key;
+    }
+}
@@ -0,0 +1,142 @@
+package org.puzzler.solver;
+
+import java.util.Arrays;
+
+/**
+ * Size-bounded cache of search states that are known to have no solution.
+ *
+ * <p>A state is the occupancy mask of the board together with the set of pieces still to
+ * place, one bit per color ordinal. The same state is often reached by placing the same
+ * pieces in different positions; once its subtree has been searched without a solution,
+ * later visits can return immediately.</p>
+ *
+ * <p>The table is open addressed over parallel primitive arrays. A key may live in any of
+ * the {@value #WINDOW} slots following its hash slot. When all of them are taken, the entry
+ * whose subtree took the fewest nodes to search is evicted, since it is the cheapest one
+ * to search again. Entries carry the generation of the search that stored them;
+ * {@link #clear()} starts a new generation instead of wiping the arrays, which keeps it
+ * cheap enough to call before every search.</p>
+ *
+ * <p>The table is not thread-safe.</p>
+ */
+public final class TranspositionTable {
+    private static final int WINDOW = 4;
+
+    private final int mask;
+    private final long[] occupied;
+    private final short[] remaining;
+    private final int[] work;
+    private final int[] generations;
+    private int generation = 1;
+
+    private long stores;
+    private long evictions;
+
+    /**
+     * Create a table.
+     *
+     * @param capacity number of entries, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is not positive or too large
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Math.max(WINDOW, Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = size - 1;
+        this.occupied = new long[size];
+        this.remaining = new short[size];
+        this.work = new int[size];
+        this.generations = new int[size];
+    }
+
+    /**
+     * Check whether a state is known to have no solution.
+     *
+     * @param occupancy occupancy mask of the board
+     * @param pieces bit {@code color.ordinal()} set for every piece still to place
+     * @return true if the state is dead
+     */
+    public boolean isDead(long occupancy, int pieces) {
+        int slot = slot(occupancy, pieces);
+        for (int i = 0; i < WINDOW; i++, slot = (slot + 1) & mask) {
+            if (generations[slot] == generation && occupied[slot] == occupancy && remaining[slot] == (short) pieces) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record a state that has no solution.
+     *
+     * @param occupancy occupancy mask of the board
+     * @param pieces bit {@code color.ordinal()} set for every piece still to place
+     * @param nodes number of nodes it took to search the state's subtree
+     */
+    public void markDead(long occupancy, int pieces, long nodes) {
+        int slot = slot(occupancy, pieces);
+        int victim = slot;
+        for (int i = 0; i < WINDOW; i++, slot = (slot + 1) & mask) {
+            if (generations[slot] != generation) {
+                victim = slot;
+                break;
+            }
+            if (work[slot] < work[victim]) {
+                victim = slot;
+            }
+        }
+
+        if (generations[victim] == generation) {
+            evictions++;
+        }
+        stores++;
+        occupied[victim] = occupancy;
+        remaining[victim] = (short) pieces;
+        work[victim] = (int) Math.min(nodes, Integer.MAX_VALUE);
+        generations[victim] = generation;
+    }
+
+    /**
+     * Forget all entries.
+     */
+    public void clear() {
+        if (++generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Get the number of entries the table can hold.
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Get the number of states recorded since this table was created.
+     *
+     * @return store count
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Get the number of entries replaced by a newer state since this table was created.
+     *
+     * @return eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    private int slot(long occupancy, int pieces) {
+        long h = occupancy * 0x9E3779B97F4A7C15L + pieces;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+}
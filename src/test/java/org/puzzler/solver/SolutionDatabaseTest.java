@@ -0,0 +1,94 @@
+package org.puzzler.solver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.puzzler.level.Level;
+import org.puzzler.level.LevelLoader;
+import org.puzzler.model.Board;
+import org.puzzler.model.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SolutionDatabaseTest {
+    @TempDir
+    static Path directory;
+
+    private static Path path;
+
+    @BeforeAll
+    static void build() throws IOException {
+        path = directory.resolve("levels.db");
+        assertEquals(LevelLoader.levelNumbers().length, SolutionDatabase.write(path, new CellFirstSolver()));
+    }
+
+    @Test
+    void solvesEveryLevel() throws IOException {
+        SolutionDatabase database = SolutionDatabase.open(path);
+        assertEquals(LevelLoader.levelNumbers().length, database.size());
+
+        for (int number : LevelLoader.levelNumbers()) {
+            Level level = LevelLoader.load(number);
+            Board board = new Board();
+            List<Piece> pieces = level.remainingPieces(level.initBoard(board));
+
+            Solution solution = database.lookup(board, pieces);
+            assertNotNull(solution, "Level " + number);
+            assertEquals(pieces.size(), solution.getPlacements().size());
+            assertEquals(board.getBitBoard().getFull(), board.getBitBoard().getOccupied() | solution.getMask());
+            assertEquals(0, board.getBitBoard().getOccupied() & solution.getMask());
+        }
+    }
+
+    @Test
+    void findsNothingForAnUnknownBoard() throws IOException {
+        SolutionDatabase database = SolutionDatabase.open(path);
+
+        assertNull(database.lookup(new Board(), TestSolutions.allPieces()));
+    }
+
+    @Test
+    void rejectsAnInvalidSlotCount() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(16, 3);
+        Files.write(path.resolveSibling("slots.db"), bytes);
+        ByteBuffer.wrap(bytes).putInt(16, 1 << 20);
+        Files.write(path.resolveSibling("capacity.db"), bytes);
+
+        assertThrows(IllegalArgumentException.class, () -> SolutionDatabase.open(path.resolveSibling("slots.db")));
+        assertThrows(IllegalArgumentException.class, () -> SolutionDatabase.open(path.resolveSibling("capacity.db")));
+    }
+
+    @Test
+    void rejectsACorruptRecord() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int slots = buffer.getInt(16);
+        int record = (bytes.length - 32) / slots;
+
+        // Flip a cell of the first placement of every stored record
+        for (int slot = 0; slot < slots; slot++) {
+            int offset = 32 + slot * record;
+            if (buffer.getInt(offset + 8) != 0) {
+                buffer.putLong(offset + 16, buffer.getLong(offset + 16) ^ 1L);
+            }
+        }
+        Path corrupt = path.resolveSibling("corrupt.db");
+        Files.write(corrupt, bytes);
+
+        SolutionDatabase database = SolutionDatabase.open(corrupt);
+        Level level = LevelLoader.load(LevelLoader.levelNumbers()[0]);
+        Board board = new Board();
+        List<Piece> pieces = level.remainingPieces(level.initBoard(board));
+        assertThrows(IOException.class, () -> database.lookup(board, pieces));
+    }
+}
@@ -0,0 +1,107 @@
+package org.puzzler.solver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.puzzler.model.Piece;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionFileTest {
+    private static List<Solution> solutions;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void enumerate() {
+        solutions = TestSolutions.ofEmptyBoard(2500);
+    }
+
+    @Test
+    void readsBackEverySolutionInOrder() throws IOException {
+        Path file = directory.resolve("solutions.bin");
+        TestSolutions.write(file, solutions, 1000);
+
+        List<long[]> read = new ArrayList<>();
+        int count = SolutionFile.read(file, (id, masks) -> {
+            assertEquals(read.size(), id);
+            read.add(masks.clone());
+            return true;
+        });
+
+        assertEquals(solutions.size(), count);
+        for (int i = 0; i < count; i++) {
+            assertArrayEquals(TestSolutions.masks(solutions.get(i)), read.get(i));
+        }
+    }
+
+    @Test
+    void stopsWhenTheReaderDeclines() throws IOException {
+        Path file = directory.resolve("solutions.bin");
+        TestSolutions.write(file, solutions, 1000);
+
+        assertEquals(10, SolutionFile.read(file, (id, masks) -> id < 9));
+        assertEquals(0, SolutionFile.count(Files.createFile(directory.resolve("empty.bin"))));
+    }
+
+    @Test
+    void rejectsABlockCutOff() throws IOException {
+        Path file = directory.resolve("solutions.bin");
+        TestSolutions.write(file, solutions, 1000);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 100));
+
+        assertThrows(IOException.class, () -> SolutionFile.count(file));
+    }
+
+    @Test
+    void rejectsARecordCutOff() throws IOException {
+        Path file = directory.resolve("solutions.bin");
+        TestSolutions.write(file, solutions.subList(0, 10), 1000);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND))) {
+            out.write(new byte[5]);
+        }
+
+        assertThrows(EOFException.class, () -> SolutionFile.count(file));
+    }
+
+    @Test
+    void looksUpTheSolutionsAgreeingWithThePlacedPieces() throws IOException {
+        Path file = directory.resolve("solutions.bin");
+        TestSolutions.write(file, solutions, 1000);
+
+        Solution expected = solutions.get(1234);
+        List<Placement> placements = expected.getPlacements();
+        List<Piece> placed = TestSolutions.placed(placements.subList(0, 6));
+
+        List<Solution> found = SolutionFile.lookup(file, placed);
+        assertFalse(found.isEmpty());
+        boolean contains = false;
+        for (Solution solution : found) {
+            long[] masks = TestSolutions.masks(solution);
+            assertEquals(6, solution.getPlacements().size());
+            for (Placement placement : placements.subList(0, 6)) {
+                assertEquals(0, masks[placement.getColor().ordinal()]);
+            }
+            contains |= Arrays.equals(masks, TestSolutions.masks(new Solution(
+                    placements.subList(6, placements.size()).toArray(new Placement[0]))));
+        }
+        assertTrue(contains);
+    }
+}
@@ -0,0 +1,80 @@
+package org.puzzler.solver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionIndexTest {
+    private static List<Solution> solutions;
+
+    @TempDir
+    static Path directory;
+
+    private static Path file;
+    private static SolutionIndex index;
+
+    @BeforeAll
+    static void build() throws IOException {
+        solutions = TestSolutions.ofEmptyBoard(2500);
+        file = directory.resolve("solutions.bin");
+        TestSolutions.write(file, solutions, 1000);
+        Path path = directory.resolve("solutions.idx");
+        assertEquals(solutions.size(), SolutionIndex.write(file, path));
+        index = SolutionIndex.open(path);
+    }
+
+    @Test
+    void readsBackEverySolution() {
+        assertEquals(solutions.size(), index.size());
+        for (int id = 0; id < solutions.size(); id += 97) {
+            assertArrayEquals(TestSolutions.masks(solutions.get(id)), TestSolutions.masks(index.solution(id, List.of())));
+        }
+    }
+
+    @Test
+    void findsTheSolutionsOfTheSolutionFile() throws IOException {
+        for (int id = 0; id < solutions.size(); id += 499) {
+            List<Placement> placements = solutions.get(id).getPlacements();
+            for (int placed = 1; placed <= 4; placed++) {
+                List<Piece> pieces = TestSolutions.placed(placements.subList(0, placed));
+
+                int[] found = index.find(pieces);
+                assertTrue(Arrays.binarySearch(found, id) >= 0);
+                for (int i = 1; i < found.length; i++) {
+                    assertTrue(found[i - 1] < found[i]);
+                }
+
+                List<Solution> expected = SolutionFile.lookup(file, pieces);
+                List<Solution> actual = index.lookup(pieces);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(TestSolutions.masks(expected.get(i)), TestSolutions.masks(actual.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void findsNothingForAPieceOffTheBoard() {
+        Piece piece = new Piece(Color.YELLOW, Shapes.of(Color.YELLOW));
+        int[][] cells = new int[piece.size()][];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new int[] {piece.getX(i) + 10, piece.getY(i)};
+        }
+
+        assertEquals(0, index.find(List.of(new Piece(Color.YELLOW, cells))).length);
+        assertEquals(solutions.size(), index.find(List.of()).length);
+    }
+}
@@ -0,0 +1,89 @@
+package org.puzzler.solver;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.puzzler.level.Level;
+import org.puzzler.level.LevelLoader;
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SolverAgreementTest {
+    // Solution counts of the bundled levels
+    private static final int[][] LEVELS = {{8, 1}, {26, 1}, {33, 1}, {36, 1}, {40, 106}};
+
+    // Pieces tiling a 4x5 board 48 ways; the board has 4 symmetries
+    private static final List<Color> SYMMETRIC = List.of(
+            Color.LIGTH_RED, Color.LIGHT_BLUE, Color.DARK_MINT, Color.DARK_BLUE, Color.DARK_RED);
+
+    static Stream<String> solvers() {
+        return Stream.of(SolverLoader.solverNames());
+    }
+
+    static Stream<Solver> breakingSolvers() {
+        return Stream.of(new Backtracking(true, Symmetry.Mode.REPRESENTATIVES),
+                new CellFirstSolver(true, Symmetry.Mode.REPRESENTATIVES));
+    }
+
+    @ParameterizedTest
+    @MethodSource("solvers")
+    void countsTheSolutionsOfTheLevels(String name) {
+        for (int[] expected : LEVELS) {
+            Level level = LevelLoader.load(expected[0]);
+            Board board = new Board();
+            List<Piece> pieces = level.remainingPieces(level.initBoard(board));
+            long occupied = board.getBitBoard().getOccupied();
+
+            Solver solver = SolverLoader.load(name);
+            assertEquals(expected[1], solver.countSolutions(board, pieces), "Level " + expected[0]);
+            assertEquals(expected[1], enumerate(solver, board, pieces, occupied), "Level " + expected[0]);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("solvers")
+    void countsTheSolutionsOfASymmetricBoard(String name) {
+        Board board = new Board(4, 5);
+        List<Piece> pieces = pieces(SYMMETRIC);
+
+        Solver solver = SolverLoader.load(name);
+        assertEquals(48, solver.countSolutions(board, pieces));
+        assertEquals(48, enumerate(solver, board, pieces, 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("breakingSolvers")
+    void enumeratesOneSolutionPerSymmetryClass(Solver solver) {
+        Board board = new Board(4, 5);
+        List<Piece> pieces = pieces(SYMMETRIC);
+
+        assertEquals(48, solver.countSolutions(board, pieces));
+        assertEquals(12, enumerate(solver, board, pieces, 0));
+    }
+
+    private static List<Piece> pieces(List<Color> colors) {
+        return colors.stream().map(color -> new Piece(color, Shapes.of(color))).toList();
+    }
+
+    /**
+     * Count the solutions passed to the sink, checking that each fills the board exactly.
+     */
+    private static long enumerate(Solver solver, Board board, List<Piece> pieces, long occupied) {
+        long full = board.getBitBoard().getFull();
+        long[] count = {0};
+        solver.solveAll(board, pieces, solution -> {
+            assertEquals(pieces.size(), solution.getPlacements().size());
+            assertEquals(0, occupied & solution.getMask());
+            assertEquals(full, occupied | solution.getMask());
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+}
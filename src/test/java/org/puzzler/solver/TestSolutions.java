@@ -0,0 +1,93 @@
+package org.puzzler.solver;
+
+import org.puzzler.model.Board;
+import org.puzzler.model.Color;
+import org.puzzler.model.Piece;
+import org.puzzler.model.Shapes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Solutions of the empty standard board and helpers to store and compare them.
+ */
+final class TestSolutions {
+    private TestSolutions() {
+    }
+
+    /**
+     * Get one piece of every color in its canonical shape.
+     */
+    static List<Piece> allPieces() {
+        List<Piece> pieces = new ArrayList<>();
+        for (Color color : Color.values()) {
+            pieces.add(new Piece(color, Shapes.of(color)));
+        }
+        return pieces;
+    }
+
+    /**
+     * Get the first solutions of the empty board, in the order of the enumeration.
+     */
+    static List<Solution> ofEmptyBoard(int count) {
+        CellFirstSolver solver = new CellFirstSolver();
+        List<Solution> solutions = new ArrayList<>();
+        for (CellFirstSolver.Subproblem subproblem : solver.frontier(new Board(), allPieces(), 3)) {
+            solver.solveAll(subproblem, solution -> {
+                solutions.add(solution);
+                return solutions.size() < count;
+            });
+            if (solutions.size() == count) {
+                break;
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Write solutions to a solution file, in blocks of the given number of solutions.
+     */
+    static void write(Path path, List<Solution> solutions, int block) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            for (int from = 0; from < solutions.size(); from += block) {
+                SolutionFile.Block compressed = new SolutionFile.Block();
+                for (Solution solution : solutions.subList(from, Math.min(from + block, solutions.size()))) {
+                    compressed.add(solution);
+                }
+                out.write(compressed.finish());
+            }
+        }
+    }
+
+    /**
+     * Get the cell mask of every color of a solution, indexed by color ordinal, 0 for the
+     * colors the solution does not place.
+     */
+    static long[] masks(Solution solution) {
+        long[] masks = new long[Color.values().length];
+        for (Placement placement : solution.getPlacements()) {
+            masks[placement.getColor().ordinal()] = placement.getMask();
+        }
+        return masks;
+    }
+
+    /**
+     * Turn placements into pre-placed pieces in board coordinates.
+     */
+    static List<Piece> placed(List<Placement> placements) {
+        List<Piece> pieces = new ArrayList<>();
+        for (Placement placement : placements) {
+            Piece piece = placement.getPiece();
+            int[][] cells = new int[piece.size()][];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = new int[] {placement.getX() + piece.getX(i), placement.getY() + piece.getY(i)};
+            }
+            pieces.add(new Piece(placement.getColor(), cells));
+        }
+        return pieces;
+    }
+}